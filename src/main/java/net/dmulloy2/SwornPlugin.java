@@ -17,11 +17,19 @@
  */
 package net.dmulloy2;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import net.dmulloy2.commands.Command;
 import net.dmulloy2.commands.CommandProps;
+import net.dmulloy2.config.ConfigParser;
+import net.dmulloy2.config.ConfigParser.PreparedConfig;
 import net.dmulloy2.handlers.CommandHandler;
 import net.dmulloy2.handlers.LogHandler;
 import net.dmulloy2.handlers.PermissionHandler;
@@ -31,8 +39,11 @@ import net.dmulloy2.types.Versioning.Version;
 
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.google.common.base.Charsets;
+
 import lombok.Getter;
 
 /**
@@ -52,6 +63,12 @@ public abstract class SwornPlugin extends JavaPlugin implements Reloadable
 
 	protected final CommandProps commandProps = new CommandProps();
 
+	// Set when the configuration was last loaded asynchronously
+	private volatile FileConfiguration asyncConfig;
+
+	// When config.yml was last modified as of the last load or save
+	private volatile long configModified;
+
 	/**
 	 * @deprecated Renamed to {@link #props()}
 	 */
@@ -136,9 +153,209 @@ public abstract class SwornPlugin extends JavaPlugin implements Reloadable
 			logHandler.log(Level.WARNING, "This version of {0} does not support {1}. Check for an update!", getName(), version.getName());
 	}
 
+	/**
+	 * Shuts down this plugin's handlers. Subclasses that override this should
+	 * call {@code super.onDisable()}.
+	 */
+	@Override
+	public void onDisable()
+	{
+		if (commandHandler != null)
+			commandHandler.shutdown();
+	}
+
+	@Override
+	public FileConfiguration getConfig()
+	{
+		FileConfiguration config = asyncConfig;
+		return config != null ? config : super.getConfig();
+	}
+
+	@Override
+	public void reloadConfig()
+	{
+		this.configModified = getConfigFile().lastModified();
+		super.reloadConfig();
+		this.asyncConfig = null;
+	}
+
+	@Override
+	public void saveConfig()
+	{
+		super.saveConfig();
+		this.configModified = getConfigFile().lastModified();
+	}
+
+	/**
+	 * Gets when config.yml was last modified as of the last time this plugin
+	 * loaded or saved it. This tells changes made by this plugin apart from
+	 * changes made by someone else.
+	 * 
+	 * @return The last modified time in milliseconds, or 0 if unknown
+	 */
+	public long getConfigModified()
+	{
+		return configModified;
+	}
+
 	@Override
 	public void reload()
 	{
 		reloadConfig();
+		invalidateHandlers();
+	}
+
+	private void invalidateHandlers()
+	{
+		if (commandHandler != null)
+			commandHandler.invalidate();
+		if (permissionHandler != null)
+			permissionHandler.invalidate();
+	}
+
+	/**
+	 * Gets the configuration classes and objects to parse when reloading
+	 * asynchronously. Classes are parsed as static-based configurations, and
+	 * anything else as an instance-based configuration.
+	 * 
+	 * @return The configuration targets, or null if this plugin does not
+	 *         support asynchronous reloading
+	 * @see #reloadAsync()
+	 * @see ConfigParser
+	 */
+	protected Object[] getConfigTargets()
+	{
+		return null;
+	}
+
+	/**
+	 * Called on the main thread once the configuration has been reloaded
+	 * asynchronously. Plugins can override this to rebuild anything that
+	 * depends on the configuration.
+	 * 
+	 * @see #reloadAsync()
+	 */
+	protected void onConfigReload() { }
+
+	/**
+	 * Whether or not {@link #reloadAsync()} reads the configuration off the
+	 * main thread. This is true if this plugin has any
+	 * {@link #getConfigTargets() targets}.
+	 * 
+	 * @return True if it does, false if it falls back to {@link #reload()}
+	 */
+	public boolean canReloadAsync()
+	{
+		Object[] targets = getConfigTargets();
+		return targets != null && targets.length > 0;
+	}
+
+	/**
+	 * Reloads this plugin without blocking the main thread. The configuration
+	 * is read and the {@link #getConfigTargets() targets} are converted on a
+	 * worker thread, then every value is set at once on the main thread. If
+	 * this plugin does not have any targets, {@link #reload()} is called
+	 * instead.
+	 * 
+	 * @return A future that completes on the main thread once the new
+	 *         configuration is in place
+	 */
+	public CompletableFuture<Void> reloadAsync()
+	{
+		Object[] targets = getConfigTargets();
+		if (targets == null || targets.length == 0)
+		{
+			reload();
+			return CompletableFuture.completedFuture(null);
+		}
+
+		CompletableFuture<Void> future = new CompletableFuture<>();
+
+		try
+		{
+			getServer().getScheduler().runTaskAsynchronously(this, () ->
+			{
+				try
+				{
+					FileConfiguration config = loadConfig();
+
+					long start = System.nanoTime();
+					List<PreparedConfig> prepared = new ArrayList<>(targets.length);
+					for (Object target : targets)
+					{
+						if (target instanceof Class)
+							prepared.add(ConfigParser.prepare(this, config, (Class<?>) target));
+						else
+							prepared.add(ConfigParser.prepare(this, config, target));
+					}
+
+					if (logHandler != null)
+						logHandler.debug("Loaded config asynchronously in {0} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+					getServer().getScheduler().runTask(this, () ->
+					{
+						try
+						{
+							this.asyncConfig = config;
+							for (PreparedConfig values : prepared)
+								values.apply();
+
+							invalidateHandlers();
+							onConfigReload();
+							future.complete(null);
+						}
+						catch (Throwable ex)
+						{
+							future.completeExceptionally(ex);
+						}
+					});
+				}
+				catch (Throwable ex)
+				{
+					completeExceptionally(future, ex);
+				}
+			});
+		}
+		catch (Throwable ex)
+		{
+			future.completeExceptionally(ex);
+		}
+
+		return future;
+	}
+
+	// Fails a future on the main thread, or right away if the plugin is disabled
+	private void completeExceptionally(CompletableFuture<?> future, Throwable ex)
+	{
+		try
+		{
+			getServer().getScheduler().runTask(this, () -> future.completeExceptionally(ex));
+		}
+		catch (Throwable ignored)
+		{
+			future.completeExceptionally(ex);
+		}
+	}
+
+	// Mirrors JavaPlugin#reloadConfig, but into a new configuration
+	private FileConfiguration loadConfig() throws Exception
+	{
+		File file = getConfigFile();
+		this.configModified = file.lastModified();
+
+		YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+
+		try (InputStream stream = getResource("config.yml"))
+		{
+			if (stream != null)
+				config.setDefaults(YamlConfiguration.loadConfiguration(new InputStreamReader(stream, Charsets.UTF_8)));
+		}
+
+		return config;
+	}
+
+	private File getConfigFile()
+	{
+		return new File(getDataFolder(), "config.yml");
 	}
 }
\ No newline at end of file
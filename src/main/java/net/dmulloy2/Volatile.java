@@ -20,11 +20,30 @@ public class Volatile
 
 	public static boolean sendMessage(Player player, ChatPosition position, BaseComponent... message)
 	{
-		net.minecraft.server.v1_13_R2.IChatBaseComponent component =
-				net.minecraft.server.v1_13_R2.IChatBaseComponent.ChatSerializer.a(ComponentSerializer.toString(message));
+		return sendChatComponent(player, position, toChatComponent(ComponentSerializer.toString(message)));
+	}
+
+	public static Object toChatComponent(String json)
+	{
+		return net.minecraft.server.v1_13_R2.IChatBaseComponent.ChatSerializer.a(json);
+	}
+
+	public static boolean sendChatComponent(Player player, ChatPosition position, Object chatComponent)
+	{
+		sendPacket(player, createChatPacket(chatComponent, position));
+		return true;
+	}
+
+	public static Object createChatPacket(Object chatComponent, ChatPosition position)
+	{
+		net.minecraft.server.v1_13_R2.IChatBaseComponent component = (net.minecraft.server.v1_13_R2.IChatBaseComponent) chatComponent;
 		net.minecraft.server.v1_13_R2.ChatMessageType type = net.minecraft.server.v1_13_R2.ChatMessageType.a(position.getValue());
+		return new net.minecraft.server.v1_13_R2.PacketPlayOutChat(component, type);
+	}
+
+	public static void sendPacket(Player player, Object packet)
+	{
 		((org.bukkit.craftbukkit.v1_13_R2.entity.CraftPlayer) player).getHandle().playerConnection
-				.sendPacket(new net.minecraft.server.v1_13_R2.PacketPlayOutChat(component, type));
-		return true;
+				.sendPacket((net.minecraft.server.v1_13_R2.Packet<?>) packet);
 	}
 }
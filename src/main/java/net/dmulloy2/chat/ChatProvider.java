@@ -17,6 +17,10 @@
  */
 package net.dmulloy2.chat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.bukkit.entity.Player;
 
 import net.dmulloy2.types.ChatPosition;
@@ -37,6 +41,41 @@ public interface ChatProvider
 	 */
 	boolean sendMessage(Player player, ChatPosition position, BaseComponent... message);
 
+	/**
+	 * Sends a compiled JSON chat message to a given player. Providers should
+	 * override this to reuse the message's cached JSON or native form.
+	 *
+	 * @param player Player to send the message to
+	 * @param position Position to display the message
+	 * @param message Message to send
+	 * @return True if it was sent, false if not
+	 */
+	default boolean sendMessage(Player player, ChatPosition position, CompiledComponent message)
+	{
+		return sendMessage(player, position, message.getComponents());
+	}
+
+	/**
+	 * Sends a compiled JSON chat message to multiple players. Providers should
+	 * override this to build their packet or native message only once.
+	 *
+	 * @param players Players to send the message to
+	 * @param position Position to display the message
+	 * @param message Message to send
+	 * @return The players the message could not be sent to
+	 */
+	default List<Player> broadcast(Collection<? extends Player> players, ChatPosition position, CompiledComponent message)
+	{
+		List<Player> failed = new ArrayList<>();
+		for (Player player : players)
+		{
+			if (! sendMessage(player, position, message))
+				failed.add(player);
+		}
+
+		return failed;
+	}
+
 	/**
 	 * Gets the name of this provider
 	 * @return The name
@@ -17,6 +17,10 @@
  */
 package net.dmulloy2.chat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.commons.lang.Validate;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -177,4 +181,128 @@ public class ChatUtil
 
 		return provider.sendMessage(player, position, message);
 	}
+
+	/**
+	 * Alias for {@link #sendMessage(CommandSender, ChatPosition, CompiledComponent)}. Defaults to {@link ChatPosition#SYSTEM}.
+	 */
+	public static void sendMessage(CommandSender sender, CompiledComponent message)
+	{
+		sendMessage(sender, ChatPosition.SYSTEM, message);
+	}
+
+	/**
+	 * Sends a compiled message to a {@link CommandSender}. This behaves the
+	 * same as {@link #sendMessage(CommandSender, ChatPosition, BaseComponent...)},
+	 * but reuses the message's cached JSON and legacy text.
+	 *
+	 * @param sender CommandSender to send the message to
+	 * @param position Message position
+	 * @param message Message to send
+	 * @see ComponentSerializer#compile(BaseComponent...)
+	 */
+	public static void sendMessage(CommandSender sender, ChatPosition position, CompiledComponent message)
+	{
+		Validate.notNull(sender, "sender cannot be null!");
+		Validate.notNull(position, "position cannot be null!");
+		Validate.notNull(message, "message cannot be null!");
+
+		if (sender instanceof Player)
+		{
+			// JSON messages can only be sent to players
+			if (sendMessageRaw((Player) sender, position, message))
+				return;
+		}
+
+		// Fall back to plain text
+		sender.sendMessage(message.getLegacyText());
+	}
+
+	/**
+	 * Alias for {@link #sendMessageRaw(Player, ChatPosition, CompiledComponent)}. Defaults to {@link ChatPosition#SYSTEM}
+	 */
+	public static boolean sendMessageRaw(Player player, CompiledComponent message)
+	{
+		return sendMessageRaw(player, ChatPosition.SYSTEM, message);
+	}
+
+	/**
+	 * Sends a compiled JSON chat message to a given Player
+	 *
+	 * @param player Player to send the message to
+	 * @param position Message position
+	 * @param message Message to send
+	 * @return True if it was sent, false if not
+	 * @see ComponentSerializer#compile(BaseComponent...)
+	 */
+	public static boolean sendMessageRaw(Player player, ChatPosition position, CompiledComponent message)
+	{
+		Validate.notNull(player, "player cannot be null!");
+		Validate.notNull(position, "position cannot be null!");
+		Validate.notNull(message, "message cannot be null!");
+
+		return provider.sendMessage(player, position, message);
+	}
+
+	/**
+	 * Alias for {@link #broadcast(Collection, ChatPosition, BaseComponent...)}. Defaults to {@link ChatPosition#SYSTEM}.
+	 */
+	public static void broadcast(Collection<? extends CommandSender> receivers, BaseComponent... message)
+	{
+		broadcast(receivers, ChatPosition.SYSTEM, message);
+	}
+
+	/**
+	 * Sends a message to multiple {@link CommandSender}s. The message is
+	 * serialized once and the provider's packet or native message is shared
+	 * between all of the players. Console and any players the JSON message
+	 * could not be sent to receive the legacy text, which is also only computed
+	 * once.
+	 *
+	 * @param receivers CommandSenders to send the message to
+	 * @param position Message position
+	 * @param message Message to send
+	 */
+	public static void broadcast(Collection<? extends CommandSender> receivers, ChatPosition position, BaseComponent... message)
+	{
+		Validate.notNull(message, "message cannot be null!");
+		broadcast(receivers, position, ComponentSerializer.compile(message));
+	}
+
+	/**
+	 * Sends a compiled message to multiple {@link CommandSender}s.
+	 *
+	 * @param receivers CommandSenders to send the message to
+	 * @param position Message position
+	 * @param message Message to send
+	 * @see #broadcast(Collection, ChatPosition, BaseComponent...)
+	 */
+	public static void broadcast(Collection<? extends CommandSender> receivers, ChatPosition position, CompiledComponent message)
+	{
+		Validate.notNull(receivers, "receivers cannot be null!");
+		Validate.notNull(position, "position cannot be null!");
+		Validate.notNull(message, "message cannot be null!");
+
+		List<Player> players = new ArrayList<>(receivers.size());
+		List<CommandSender> legacy = new ArrayList<>();
+
+		for (CommandSender receiver : receivers)
+		{
+			// JSON messages can only be sent to players
+			if (receiver instanceof Player)
+				players.add((Player) receiver);
+			else if (receiver != null)
+				legacy.add(receiver);
+		}
+
+		if (! players.isEmpty())
+			legacy.addAll(provider.broadcast(players, position, message));
+
+		// Fall back to plain text
+		if (! legacy.isEmpty())
+		{
+			String legacyText = message.getLegacyText();
+			for (CommandSender receiver : legacy)
+				receiver.sendMessage(legacyText);
+		}
+	}
 }
\ No newline at end of file
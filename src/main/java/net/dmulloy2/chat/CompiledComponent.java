@@ -0,0 +1,106 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.chat;
+
+import java.util.function.Function;
+
+import org.apache.commons.lang.Validate;
+
+import lombok.Getter;
+
+/**
+ * Represents a chat message that has been serialized ahead of time. The JSON,
+ * legacy text, and provider-specific form of the message are only computed
+ * once, so a compiled message can be sent any number of times without going
+ * through the serializer again.
+ * <p>
+ * The components passed to {@link ComponentSerializer#compile(BaseComponent...)}
+ * should not be modified afterwards, as changes will not be reflected.
+ *
+ * @author dmulloy2
+ */
+
+public final class CompiledComponent
+{
+	@Getter
+	private final BaseComponent[] components;
+	@Getter
+	private final String json;
+
+	private volatile String legacyText;
+	private volatile Handle handle;
+
+	CompiledComponent(BaseComponent[] components, String json)
+	{
+		this.components = components;
+		this.json = json;
+	}
+
+	/**
+	 * Gets the legacy text of this message, computing it if necessary.
+	 *
+	 * @return The legacy text
+	 * @see BaseComponent#toLegacyText(BaseComponent...)
+	 */
+	public String getLegacyText()
+	{
+		String legacyText = this.legacyText;
+		if (legacyText == null)
+			this.legacyText = legacyText = TextComponent.toLegacyText(components);
+		return legacyText;
+	}
+
+	/**
+	 * Gets the native form of this message for a given provider. The native
+	 * form is created from the JSON the first time it is requested, and cached
+	 * for subsequent sends.
+	 *
+	 * @param provider Provider requesting the native form
+	 * @param factory Creates the native form from JSON
+	 * @return The native form
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getHandle(ChatProvider provider, Function<String, T> factory)
+	{
+		Validate.notNull(provider, "provider cannot be null!");
+		Validate.notNull(factory, "factory cannot be null!");
+
+		Handle handle = this.handle;
+		if (handle == null || handle.provider != provider)
+			this.handle = handle = new Handle(provider, factory.apply(json));
+		return (T) handle.value;
+	}
+
+	private static class Handle
+	{
+		private final ChatProvider provider;
+		private final Object value;
+
+		private Handle(ChatProvider provider, Object value)
+		{
+			this.provider = provider;
+			this.value = value;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CompiledComponent{json=" + json + "}";
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.chat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads chat components from JSON in a single pass, without building an
+ * intermediate Gson tree.
+ *
+ * @author dmulloy2
+ */
+
+public final class ComponentReader
+{
+	private ComponentReader() { }
+
+	private static final BaseComponent[] EMPTY = new BaseComponent[0];
+
+	/**
+	 * Parses one or more components from a JSON string.
+	 *
+	 * @param json JSON to parse
+	 * @return The components
+	 * @throws JsonParseException If the JSON is malformed
+	 */
+	public static BaseComponent[] parse(String json)
+	{
+		return parse(new StringReader(json));
+	}
+
+	/**
+	 * Parses one or more components from a stream of JSON.
+	 *
+	 * @param reader Reader to parse from
+	 * @return The components
+	 * @throws JsonParseException If the JSON is malformed
+	 */
+	public static BaseComponent[] parse(Reader reader)
+	{
+		try
+		{
+			JsonReader in = new JsonReader(reader);
+			in.setLenient(true);
+
+			BaseComponent[] ret;
+			if (in.peek() == JsonToken.BEGIN_ARRAY)
+				ret = readArray(in);
+			else
+				ret = new BaseComponent[] { readComponent(in) };
+
+			if (in.peek() != JsonToken.END_DOCUMENT)
+				throw new JsonParseException("JSON document was not fully consumed");
+
+			return ret;
+		}
+		catch (IOException | IllegalStateException | NumberFormatException ex)
+		{
+			throw new JsonParseException(ex);
+		}
+	}
+
+	private static BaseComponent[] readArray(JsonReader in) throws IOException
+	{
+		List<BaseComponent> list = readList(in);
+		return list.isEmpty() ? EMPTY : list.toArray(new BaseComponent[list.size()]);
+	}
+
+	private static List<BaseComponent> readList(JsonReader in) throws IOException
+	{
+		List<BaseComponent> ret = new ArrayList<>();
+
+		in.beginArray();
+		while (in.hasNext())
+			ret.add(readComponent(in));
+		in.endArray();
+
+		return ret;
+	}
+
+	private static BaseComponent readComponent(JsonReader in) throws IOException
+	{
+		switch (in.peek())
+		{
+			case NULL:
+				in.nextNull();
+				return null;
+			case STRING:
+			case NUMBER:
+			case BOOLEAN:
+				return new TextComponent(readString(in));
+			case BEGIN_OBJECT:
+				return readObject(in);
+			default:
+				throw new JsonParseException("Expected a component but found " + in.peek() + " at " + in.getPath());
+		}
+	}
+
+	private static TextComponent readObject(JsonReader in) throws IOException
+	{
+		TextComponent component = new TextComponent();
+		String text = null;
+
+		in.beginObject();
+		while (in.hasNext())
+		{
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				continue;
+			}
+
+			switch (name)
+			{
+				case "text":
+					text = readString(in);
+					break;
+				case "color":
+					component.setColor(readString(in).toLowerCase());
+					break;
+				case "bold":
+					component.setBold(readBoolean(in));
+					break;
+				case "italic":
+					component.setItalic(readBoolean(in));
+					break;
+				case "underlined":
+					component.setUnderlined(readBoolean(in));
+					break;
+				case "strikethrough":
+					component.setStrikethrough(readBoolean(in));
+					break;
+				case "obfuscated":
+					component.setObfuscated(readBoolean(in));
+					break;
+				case "extra":
+					component.setExtra(readList(in));
+					break;
+				case "clickEvent":
+					component.setClickEvent(readClickEvent(in));
+					break;
+				case "hoverEvent":
+					component.setHoverEvent(readHoverEvent(in));
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+
+		if (text == null)
+			throw new JsonParseException("Component is missing text at " + in.getPath());
+
+		component.setText(text);
+		return component;
+	}
+
+	private static ClickEvent readClickEvent(JsonReader in) throws IOException
+	{
+		String action = null;
+		String value = null;
+
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "action":
+					action = readString(in);
+					break;
+				case "value":
+					value = readString(in);
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+
+		if (action == null)
+			throw new JsonParseException("Click event is missing an action at " + in.getPath());
+
+		return new ClickEvent(ClickEvent.Action.valueOf(action.toUpperCase()), value);
+	}
+
+	private static HoverEvent readHoverEvent(JsonReader in) throws IOException
+	{
+		String action = null;
+		BaseComponent[] value = null;
+
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "action":
+					action = readString(in);
+					break;
+				case "value":
+					if (in.peek() == JsonToken.BEGIN_ARRAY)
+						value = readArray(in);
+					else
+						value = new BaseComponent[] { readComponent(in) };
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+
+		if (action == null)
+			throw new JsonParseException("Hover event is missing an action at " + in.getPath());
+
+		return new HoverEvent(HoverEvent.Action.valueOf(action.toUpperCase()), value);
+	}
+
+	// Mimic JsonPrimitive#getAsString, which accepts any primitive
+	private static String readString(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.BOOLEAN)
+			return Boolean.toString(in.nextBoolean());
+		return in.nextString();
+	}
+
+	// Mimic JsonPrimitive#getAsBoolean, which also accepts strings
+	private static boolean readBoolean(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.BOOLEAN)
+			return in.nextBoolean();
+		return Boolean.parseBoolean(in.nextString());
+	}
+}
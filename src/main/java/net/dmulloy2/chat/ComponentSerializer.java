@@ -38,6 +38,11 @@ public class ComponentSerializer implements JsonDeserializer<BaseComponent>
 	public final static ThreadLocal<HashSet<BaseComponent>> serializedComponents = new ThreadLocal<>();
 
 	public static BaseComponent[] parse(String json)
+	{
+		return ComponentReader.parse(json);
+	}
+
+	static BaseComponent[] parseGson(String json)
 	{
 		if (json.startsWith("[")) // Array
 		{
@@ -51,14 +56,29 @@ public class ComponentSerializer implements JsonDeserializer<BaseComponent>
 
 	public static String toString(BaseComponent component)
 	{
-		return gson.toJson(component);
+		return ComponentWriter.toJson(component);
 	}
 
 	public static String toString(BaseComponent... components)
+	{
+		return ComponentWriter.toJson(components);
+	}
+
+	static String toGsonString(BaseComponent component)
+	{
+		return gson.toJson(component);
+	}
+
+	static String toGsonString(BaseComponent... components)
 	{
 		return gson.toJson(new TextComponent(components));
 	}
 
+	public static CompiledComponent compile(BaseComponent... components)
+	{
+		return new CompiledComponent(components, toString(components));
+	}
+
 	@Override
 	public BaseComponent deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException
 	{
@@ -0,0 +1,364 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.chat;
+
+import java.util.List;
+
+/**
+ * Writes chat components directly to JSON without building an intermediate
+ * Gson tree. The output is identical to what Gson produces for the same
+ * components, including its HTML-safe escaping.
+ * <p>
+ * Instances are not thread safe, but are cheap to reuse. The static methods
+ * use a buffer per thread.
+ *
+ * @author dmulloy2
+ */
+
+public final class ComponentWriter
+{
+	private static final int MAX_BUFFER_SIZE = 8192;
+
+	private static final String[] REPLACEMENT_CHARS;
+
+	static
+	{
+		REPLACEMENT_CHARS = new String[128];
+		for (int i = 0; i < 0x20; i++)
+			REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+
+		REPLACEMENT_CHARS['"'] = "\\\"";
+		REPLACEMENT_CHARS['\\'] = "\\\\";
+		REPLACEMENT_CHARS['\t'] = "\\t";
+		REPLACEMENT_CHARS['\b'] = "\\b";
+		REPLACEMENT_CHARS['\n'] = "\\n";
+		REPLACEMENT_CHARS['\r'] = "\\r";
+		REPLACEMENT_CHARS['\f'] = "\\f";
+
+		// Gson escapes these by default
+		REPLACEMENT_CHARS['<'] = "\\u003c";
+		REPLACEMENT_CHARS['>'] = "\\u003e";
+		REPLACEMENT_CHARS['&'] = "\\u0026";
+		REPLACEMENT_CHARS['='] = "\\u003d";
+		REPLACEMENT_CHARS['\''] = "\\u0027";
+	}
+
+	private static final ThreadLocal<ComponentWriter> local = ThreadLocal.withInitial(ComponentWriter::new);
+
+	private final StringBuilder buffer;
+	private BaseComponent[] path;
+	private int depth;
+
+	public ComponentWriter()
+	{
+		this.buffer = new StringBuilder(256);
+		this.path = new BaseComponent[16];
+	}
+
+	/**
+	 * Serializes a component to JSON.
+	 *
+	 * @param component Component to serialize
+	 * @return The JSON
+	 */
+	public static String toJson(BaseComponent component)
+	{
+		return local.get().write(component);
+	}
+
+	/**
+	 * Serializes multiple components to JSON. The components are wrapped in
+	 * an empty {@link TextComponent}, like {@link ComponentSerializer#toString(BaseComponent...)}.
+	 *
+	 * @param components Components to serialize
+	 * @return The JSON
+	 */
+	public static String toJson(BaseComponent... components)
+	{
+		return local.get().write(components);
+	}
+
+	/**
+	 * Serializes a component to JSON using this writer's buffer.
+	 *
+	 * @param component Component to serialize
+	 * @return The JSON
+	 */
+	public String write(BaseComponent component)
+	{
+		try
+		{
+			writeComponent(component);
+			return buffer.toString();
+		}
+		finally
+		{
+			reset();
+		}
+	}
+
+	/**
+	 * Serializes multiple components to JSON using this writer's buffer.
+	 *
+	 * @param components Components to serialize
+	 * @return The JSON
+	 */
+	public String write(BaseComponent... components)
+	{
+		try
+		{
+			writeWrapped(components);
+			return buffer.toString();
+		}
+		finally
+		{
+			reset();
+		}
+	}
+
+	private void reset()
+	{
+		buffer.setLength(0);
+		if (buffer.capacity() > MAX_BUFFER_SIZE)
+		{
+			buffer.trimToSize();
+		}
+
+		for (int i = 0; i < depth; i++)
+			path[i] = null;
+		depth = 0;
+	}
+
+	// The equivalent of new TextComponent(components), without touching the parents
+	private void writeWrapped(BaseComponent[] components)
+	{
+		if (components.length == 0)
+		{
+			buffer.append("\"\"");
+			return;
+		}
+
+		buffer.append("{\"extra\":");
+		writeArray(components);
+		buffer.append(",\"text\":\"\"}");
+	}
+
+	private void writeComponent(BaseComponent component)
+	{
+		if (component == null)
+		{
+			buffer.append("null");
+			return;
+		}
+
+		if (component instanceof TextComponent)
+		{
+			TextComponent text = (TextComponent) component;
+			List<BaseComponent> extra = text.getExtra();
+			if (! text.hasFormatting() && (extra == null || extra.isEmpty()))
+			{
+				writeString(text.getText() != null ? text.getText() : "");
+				return;
+			}
+		}
+
+		push(component);
+
+		buffer.append('{');
+		boolean first = true;
+
+		if (component.getColorRaw() != null)
+		{
+			first = writeName("color", first);
+			writeString(component.getColorRaw().toLowerCase());
+		}
+		if (component.isBoldRaw() != null)
+		{
+			first = writeName("bold", first);
+			buffer.append(component.isBoldRaw().booleanValue());
+		}
+		if (component.isItalicRaw() != null)
+		{
+			first = writeName("italic", first);
+			buffer.append(component.isItalicRaw().booleanValue());
+		}
+		if (component.isUnderlinedRaw() != null)
+		{
+			first = writeName("underlined", first);
+			buffer.append(component.isUnderlinedRaw().booleanValue());
+		}
+		if (component.isStrikethroughRaw() != null)
+		{
+			first = writeName("strikethrough", first);
+			buffer.append(component.isStrikethroughRaw().booleanValue());
+		}
+		if (component.isObfuscatedRaw() != null)
+		{
+			first = writeName("obfuscated", first);
+			buffer.append(component.isObfuscatedRaw().booleanValue());
+		}
+
+		if (component.getExtra() != null)
+		{
+			first = writeName("extra", first);
+			writeList(component.getExtra());
+		}
+
+		// Events
+		ClickEvent clickEvent = component.getClickEvent();
+		if (clickEvent != null)
+		{
+			first = writeName("clickEvent", first);
+			buffer.append("{\"action\":");
+			writeString(clickEvent.getAction().toString().toLowerCase());
+			if (clickEvent.getValue() != null)
+			{
+				buffer.append(",\"value\":");
+				writeString(clickEvent.getValue());
+			}
+			buffer.append('}');
+		}
+
+		HoverEvent hoverEvent = component.getHoverEvent();
+		if (hoverEvent != null)
+		{
+			first = writeName("hoverEvent", first);
+			buffer.append("{\"action\":");
+			writeString(hoverEvent.getAction().toString().toLowerCase());
+			if (hoverEvent.getValue() != null)
+			{
+				buffer.append(",\"value\":");
+				writeArray(hoverEvent.getValue());
+			}
+			buffer.append('}');
+		}
+
+		if (component instanceof TextComponent)
+		{
+			String text = ((TextComponent) component).getText();
+			if (text != null)
+			{
+				writeName("text", first);
+				writeString(text);
+			}
+		}
+
+		buffer.append('}');
+		pop();
+	}
+
+	private void writeList(List<BaseComponent> components)
+	{
+		buffer.append('[');
+		for (int i = 0; i < components.size(); i++)
+		{
+			if (i != 0)
+				buffer.append(',');
+			writeComponent(components.get(i));
+		}
+		buffer.append(']');
+	}
+
+	private void writeArray(BaseComponent[] components)
+	{
+		buffer.append('[');
+		for (int i = 0; i < components.length; i++)
+		{
+			if (i != 0)
+				buffer.append(',');
+			writeComponent(components[i]);
+		}
+		buffer.append(']');
+	}
+
+	// Returns false so callers can track whether a comma is needed
+	private boolean writeName(String name, boolean first)
+	{
+		if (! first)
+			buffer.append(',');
+		buffer.append('"').append(name).append("\":");
+		return false;
+	}
+
+	private void writeString(String value)
+	{
+		StringBuilder buffer = this.buffer;
+		buffer.append('"');
+
+		int last = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++)
+		{
+			char c = value.charAt(i);
+			String replacement;
+			if (c < 128)
+			{
+				replacement = REPLACEMENT_CHARS[c];
+				if (replacement == null)
+					continue;
+			}
+			else if (c == '\u2028')
+			{
+				replacement = "\\u2028";
+			}
+			else if (c == '\u2029')
+			{
+				replacement = "\\u2029";
+			}
+			else
+			{
+				continue;
+			}
+
+			if (last < i)
+				buffer.append(value, last, i);
+			buffer.append(replacement);
+			last = i + 1;
+		}
+
+		if (last < length)
+			buffer.append(value, last, length);
+
+		buffer.append('"');
+	}
+
+	// ---- Loop detection
+
+	private void push(BaseComponent component)
+	{
+		for (int i = 0; i < depth; i++)
+		{
+			if (path[i] == component)
+				throw new IllegalArgumentException("Component loop");
+		}
+
+		if (depth == path.length)
+		{
+			BaseComponent[] expanded = new BaseComponent[path.length * 2];
+			System.arraycopy(path, 0, expanded, 0, depth);
+			path = expanded;
+		}
+
+		path[depth++] = component;
+	}
+
+	private void pop()
+	{
+		path[--depth] = null;
+	}
+}
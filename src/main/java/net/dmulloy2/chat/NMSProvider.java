@@ -17,9 +17,15 @@
  */
 package net.dmulloy2.chat;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.dmulloy2.Volatile;
 import net.dmulloy2.handlers.LogHandler;
@@ -27,72 +33,308 @@ import net.dmulloy2.types.ChatPosition;
 import net.dmulloy2.util.Util;
 
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 
+import static net.dmulloy2.util.ReflectionUtil.getCraftClass;
 import static net.dmulloy2.util.ReflectionUtil.getMinecraftClass;
 
 /**
+ * Sends chat packets through {@link Volatile} when it matches the server
+ * version, and otherwise through method handles that are resolved once.
+ * Player connections are cached until the player quits. A connection holds
+ * on to its player, so the cache relies on the quit listener, and connections
+ * are not cached if it could not be registered.
+ *
  * @author dmulloy2
  */
 
 public class NMSProvider implements ChatProvider
 {
-	private Method serialize;
-	private Constructor<?> packetConstructor;
-	private Field connectionField;
-	private Method getMessageType;
-	private Method sendPacket;
+	private MethodHandle serialize;
+	private MethodHandle packetConstructor;
+	private MethodHandle getHandle;
+	private MethodHandle getConnection;
+	private MethodHandle getMessageType;
+	private MethodHandle sendPacket;
+
+	private volatile boolean reflected;
+	private Exception reflectionError;
+	private volatile boolean volatileAvailable = true;
+	private volatile boolean listening;
 
-	private boolean reflected;
+	private final Map<UUID, CachedConnection> connections = new ConcurrentHashMap<>();
 
-	private void setupReflection() throws ReflectiveOperationException
+	private void setupReflection() throws Exception
 	{
 		if (reflected) return;
-		reflected = true;
+
+		synchronized (this)
+		{
+			if (reflected) return;
+
+			// Don't look everything up again if it failed the first time
+			if (reflectionError != null)
+				throw reflectionError;
+
+			try
+			{
+				setupHandles();
+			}
+			catch (ReflectiveOperationException | RuntimeException ex)
+			{
+				reflectionError = ex;
+				throw ex;
+			}
+
+			registerListener();
+			reflected = true;
+		}
+	}
+
+	private void setupHandles() throws ReflectiveOperationException
+	{
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
 
 		Class<?> serializerClass = getMinecraftClass("ChatSerializer", "IChatBaseComponent$ChatSerializer");
-		serialize = serializerClass.getMethod("a", String.class);
+		serialize = lookup.unreflect(serializerClass.getMethod("a", String.class))
+				.asType(MethodType.methodType(Object.class, String.class));
 
 		Class<?> chatPacketClass = getMinecraftClass("PacketPlayOutChat");
 		Class<?> componentClass = getMinecraftClass("IChatBaseComponent");
 		Class<?> messageTypeClass = getMinecraftClass("ChatMessageType");
-		getMessageType = messageTypeClass.getMethod("a", byte.class);
-		packetConstructor = chatPacketClass.getConstructor(componentClass, messageTypeClass);
+		getMessageType = lookup.unreflect(messageTypeClass.getMethod("a", byte.class))
+				.asType(MethodType.methodType(Object.class, byte.class));
+		packetConstructor = lookup.unreflectConstructor(chatPacketClass.getConstructor(componentClass, messageTypeClass))
+				.asType(MethodType.genericMethodType(2));
+
+		Class<?> craftPlayer = getCraftClass("entity.CraftPlayer");
+		getHandle = lookup.unreflect(craftPlayer.getMethod("getHandle"))
+				.asType(MethodType.genericMethodType(1));
 
 		Class<?> entityPlayer = getMinecraftClass("EntityPlayer");
-		connectionField = entityPlayer.getField("playerConnection");
-		Class<?> playerConnection = connectionField.getType();
+		getConnection = lookup.unreflectGetter(entityPlayer.getField("playerConnection"))
+				.asType(MethodType.genericMethodType(1));
+
+		Class<?> playerConnection = entityPlayer.getField("playerConnection").getType();
 		Class<?> packetClass = getMinecraftClass("Packet");
-		sendPacket = playerConnection.getMethod("sendPacket", packetClass);
+		sendPacket = lookup.unreflect(playerConnection.getMethod("sendPacket", packetClass))
+				.asType(MethodType.methodType(void.class, Object.class, Object.class));
+	}
+
+	private void registerListener()
+	{
+		try
+		{
+			Plugin plugin = JavaPlugin.getProvidingPlugin(NMSProvider.class);
+			plugin.getServer().getPluginManager().registerEvents(new ConnectionListener(), plugin);
+			listening = true;
+		}
+		catch (Throwable ex)
+		{
+			// Nothing would remove them, so connections aren't cached
+			LogHandler.globalDebug(Util.getUsefulStack(ex, "registering connection listener"));
+		}
+	}
+
+	private void volatileUnavailable(LinkageError ex)
+	{
+		volatileAvailable = false;
+		LogHandler.globalDebug("Volatile chat is not supported on this version, using reflection: {0}", ex);
 	}
 
 	@Override
 	public boolean sendMessage(Player player, ChatPosition position, BaseComponent... message)
 	{
+		if (volatileAvailable)
+		{
+			try
+			{
+				return Volatile.sendMessage(player, position, message);
+			}
+			catch (LinkageError ex)
+			{
+				volatileUnavailable(ex);
+			}
+			catch (Exception ignored) { }
+		}
+
 		try
 		{
-			Volatile.sendMessage(player, position, message);
+			setupReflection();
+
+			Object component = (Object) serialize.invokeExact(ComponentSerializer.toString(message));
+			sendComponent(player, position, component);
 			return true;
-		} catch (Exception ex)
+		}
+		catch (Throwable ex)
+		{
+			LogHandler.globalDebug(Util.getUsefulStack(ex, "sending chat packet to {0}", player.getName()));
+			return false;
+		}
+	}
+
+	@Override
+	public boolean sendMessage(Player player, ChatPosition position, CompiledComponent message)
+	{
+		if (volatileAvailable)
+		{
+			try
+			{
+				return Volatile.sendChatComponent(player, position, message.getHandle(this, Volatile::toChatComponent));
+			}
+			catch (LinkageError ex)
+			{
+				volatileUnavailable(ex);
+			}
+			catch (Exception ignored) { }
+		}
+
+		try
+		{
+			setupReflection();
+
+			sendComponent(player, position, getComponent(message));
+			return true;
+		}
+		catch (Throwable ex)
+		{
+			LogHandler.globalDebug(Util.getUsefulStack(ex, "sending chat packet to {0}", player.getName()));
+			return false;
+		}
+	}
+
+	@Override
+	public List<Player> broadcast(Collection<? extends Player> players, ChatPosition position, CompiledComponent message)
+	{
+		List<Player> failed = new ArrayList<>();
+		if (players.isEmpty())
+			return failed;
+
+		// Packets can be modified by listeners, so only the component is shared
+		Object component = null;
+		boolean useVolatile = false;
+
+		if (volatileAvailable)
+		{
+			try
+			{
+				component = message.getHandle(this, Volatile::toChatComponent);
+				useVolatile = true;
+			}
+			catch (LinkageError ex)
+			{
+				volatileUnavailable(ex);
+			}
+			catch (Exception ignored) { }
+		}
+
+		if (! useVolatile)
 		{
 			try
 			{
 				setupReflection();
 
-				Object component = serialize.invoke(null, ComponentSerializer.toString(message));
-				Object messageType = getMessageType.invoke(null, position.getValue());
-				Object packet = packetConstructor.newInstance(component, messageType);
+				component = getComponent(message);
+			}
+			catch (Throwable ex)
+			{
+				LogHandler.globalDebug(Util.getUsefulStack(ex, "creating chat component"));
+				failed.addAll(players);
+				return failed;
+			}
+		}
+
+		for (Player player : players)
+		{
+			try
+			{
+				if (useVolatile)
+					Volatile.sendChatComponent(player, position, component);
+				else
+					sendComponent(player, position, component);
+			}
+			catch (Throwable ex)
+			{
+				LogHandler.globalDebug(Util.getUsefulStack(ex, "sending chat packet to {0}", player.getName()));
+				failed.add(player);
+			}
+		}
 
-				Method getHandle = player.getClass().getMethod("getHandle");
-				Object entityPlayer = getHandle.invoke(player);
+		return failed;
+	}
 
-				Object playerConnection = connectionField.get(entityPlayer);
-				sendPacket.invoke(playerConnection, packet);
-				return true;
-			} catch (Exception ex2)
+	private Object getComponent(CompiledComponent message)
+	{
+		return message.getHandle(this, json ->
+		{
+			try
+			{
+				return (Object) serialize.invokeExact(json);
+			}
+			catch (Throwable ex)
 			{
-				LogHandler.globalDebug(Util.getUsefulStack(ex2, "sending chat packet to {0}", player.getName()));
-				return false;
+				throw new IllegalStateException("Failed to serialize " + json, ex);
 			}
+		});
+	}
+
+	private void sendComponent(Player player, ChatPosition position, Object component) throws Throwable
+	{
+		sendPacket(player, createPacket(position, component));
+	}
+
+	private Object createPacket(ChatPosition position, Object component) throws Throwable
+	{
+		Object messageType = (Object) getMessageType.invokeExact(position.getValue());
+		return (Object) packetConstructor.invokeExact(component, messageType);
+	}
+
+	private void sendPacket(Player player, Object packet) throws Throwable
+	{
+		sendPacket.invokeExact(getConnection(player), packet);
+	}
+
+	// ---- Connection caching
+
+	private Object getConnection(Player player) throws Throwable
+	{
+		UUID uniqueId = player.getUniqueId();
+		CachedConnection cached = connections.get(uniqueId);
+
+		// A player who logs back in gets a new Player object
+		if (cached != null && cached.player == player)
+			return cached.connection;
+
+		Object entityPlayer = (Object) getHandle.invokeExact((Object) player);
+		Object connection = (Object) getConnection.invokeExact(entityPlayer);
+		if (connection != null && listening)
+			connections.put(uniqueId, new CachedConnection(player, connection));
+		return connection;
+	}
+
+	private static class CachedConnection
+	{
+		private final Player player;
+		private final Object connection;
+
+		private CachedConnection(Player player, Object connection)
+		{
+			this.player = player;
+			this.connection = connection;
+		}
+	}
+
+	private class ConnectionListener implements Listener
+	{
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onPlayerQuit(PlayerQuitEvent event)
+		{
+			connections.remove(event.getPlayer().getUniqueId());
 		}
 	}
 
@@ -17,6 +17,10 @@
  */
 package net.dmulloy2.chat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.bukkit.entity.Player;
 
 import com.comphenix.protocol.PacketType;
@@ -45,22 +49,66 @@ public class ProtocolLibProvider implements ChatProvider
 	@Override
 	public boolean sendMessage(Player player, ChatPosition position, BaseComponent... message)
 	{
+		return sendMessage(player, position, WrappedChatComponent.fromJson(ComponentSerializer.toString(message)));
+	}
+
+	@Override
+	public boolean sendMessage(Player player, ChatPosition position, CompiledComponent message)
+	{
+		return sendMessage(player, position, message.getHandle(this, WrappedChatComponent::fromJson));
+	}
+
+	@Override
+	public List<Player> broadcast(Collection<? extends Player> players, ChatPosition position, CompiledComponent message)
+	{
+		List<Player> failed = new ArrayList<>();
+		if (players.isEmpty())
+			return failed;
+
+		// Packets can be modified by listeners, so only the component is shared
+		WrappedChatComponent component;
+
 		try
 		{
-			PacketContainer packet = manager.createPacket(PacketType.Play.Server.CHAT);
+			component = message.getHandle(this, WrappedChatComponent::fromJson);
+		}
+		catch (Throwable ex)
+		{
+			LogHandler.globalDebug(Util.getUsefulStack(ex, "creating chat component"));
+			failed.addAll(players);
+			return failed;
+		}
 
-			// Write our message to the packet
-			WrappedChatComponent component = WrappedChatComponent.fromJson(ComponentSerializer.toString(message));
-			packet.getChatComponents().write(0, component);
+		for (Player player : players)
+		{
+			if (! sendMessage(player, position, component))
+				failed.add(player);
+		}
 
-			// Nullify Spigot's components
-			packet.getModifier().write(1, null);
+		return failed;
+	}
+
+	private PacketContainer createPacket(ChatPosition position, WrappedChatComponent component)
+	{
+		PacketContainer packet = manager.createPacket(PacketType.Play.Server.CHAT);
 
-			// Write the position
-			packet.getBytes().write(0, position != null ? position.getValue() : 1);
+		// Write our message to the packet
+		packet.getChatComponents().write(0, component);
 
+		// Nullify Spigot's components
+		packet.getModifier().write(1, null);
+
+		// Write the position
+		packet.getBytes().write(0, position != null ? position.getValue() : 1);
+		return packet;
+	}
+
+	private boolean sendMessage(Player player, ChatPosition position, WrappedChatComponent component)
+	{
+		try
+		{
 			// Send the packet
-			manager.sendServerPacket(player, packet);
+			manager.sendServerPacket(player, createPacket(position, component));
 			return true;
 		}
 		catch (Throwable ex)
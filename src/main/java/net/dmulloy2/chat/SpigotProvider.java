@@ -42,6 +42,14 @@ public class SpigotProvider implements ChatProvider
 		return true;
 	}
 
+	@Override
+	public boolean sendMessage(Player player, ChatPosition position, CompiledComponent message)
+	{
+		BaseComponent[] components = message.getHandle(this, net.md_5.bungee.chat.ComponentSerializer::parse);
+		player.spigot().sendMessage(toBungeeType(position), components);
+		return true;
+	}
+
 	// Should always be 1:1
 	private ChatMessageType toBungeeType(ChatPosition position)
 	{
@@ -0,0 +1,260 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import net.dmulloy2.util.MaterialUtil;
+import net.dmulloy2.util.NumberUtil;
+import net.dmulloy2.util.TimeUtil;
+import net.dmulloy2.util.Util;
+
+/**
+ * The type of a {@link Command.Argument}. Typed arguments are parsed once,
+ * before the command is performed, and the results are available through
+ * {@link CommandContext#getValue(int)}. If an argument can't be parsed, the
+ * sender is shown the type's error message and the command is not performed.
+ * <p>
+ * Parsing never throws an exception for bad input, so trying a few syntaxes
+ * to find the one that matches is cheap.
+ *
+ * @author dmulloy2
+ * @param <T> Type of the parsed value
+ */
+
+public abstract class ArgType<T>
+{
+	public static final ArgType<Integer> INTEGER = new IntArg(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	public static final ArgType<Double> DOUBLE = new DoubleArg();
+	public static final ArgType<Player> PLAYER = new PlayerArg();
+	public static final ArgType<Material> MATERIAL = new MaterialArg();
+	public static final ArgType<Long> DURATION = new DurationArg();
+
+	/**
+	 * Parses a given argument.
+	 *
+	 * @param sender Sender of the command
+	 * @param input Argument to parse
+	 * @return The parsed value, or null if the argument is invalid
+	 */
+	public abstract T parse(CommandSender sender, String input);
+
+	/**
+	 * Gets the message shown when an argument can't be parsed. The argument
+	 * is formatted in as {@code {0}}.
+	 *
+	 * @return The error message
+	 */
+	public abstract String getError();
+
+	/**
+	 * Gets the tab completer for arguments of this type.
+	 *
+	 * @return The completer, or null if none
+	 */
+	public Completer getCompleter()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets a type for whole numbers in a given range.
+	 *
+	 * @param min Smallest number, inclusive
+	 * @param max Largest number, inclusive
+	 * @return The type
+	 */
+	public static ArgType<Integer> integer(int min, int max)
+	{
+		Validate.isTrue(min <= max, "min cannot be greater than max!");
+		return new IntArg(min, max);
+	}
+
+	/**
+	 * Gets a type for the constants of an enum, ignoring case.
+	 *
+	 * @param type Enum class
+	 * @return The type
+	 */
+	public static <E extends Enum<E>> ArgType<E> ofEnum(Class<E> type)
+	{
+		Validate.notNull(type, "type cannot be null!");
+		return new EnumArg<>(type);
+	}
+
+	// ---- Types
+
+	public static class IntArg extends ArgType<Integer>
+	{
+		private final int min;
+		private final int max;
+		private final Completer completer;
+
+		private IntArg(int min, int max)
+		{
+			this.min = min;
+			this.max = max;
+			this.completer = Completers.range(min, max);
+		}
+
+		@Override
+		public Integer parse(CommandSender sender, String input)
+		{
+			// Long.MIN_VALUE is never in range, so it can mark bad input
+			long value = NumberUtil.parseLong(input, Long.MIN_VALUE);
+			return value >= min && value <= max ? (int) value : null;
+		}
+
+		@Override
+		public String getError()
+		{
+			if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE)
+				return "&c{0} &4is not a number.";
+			return "&c{0} &4is not a number between &c" + min + " &4and &c" + max + "&4.";
+		}
+
+		@Override
+		public Completer getCompleter()
+		{
+			return completer;
+		}
+	}
+
+	public static class DoubleArg extends ArgType<Double>
+	{
+		private DoubleArg() { }
+
+		@Override
+		public Double parse(CommandSender sender, String input)
+		{
+			// NaN marks bad input, infinite values aren't allowed either
+			double value = NumberUtil.parseDouble(input, Double.NaN);
+			return Double.isFinite(value) ? value : null;
+		}
+
+		@Override
+		public String getError()
+		{
+			return "&c{0} &4is not a number.";
+		}
+	}
+
+	public static class PlayerArg extends ArgType<Player>
+	{
+		private PlayerArg() { }
+
+		@Override
+		public Player parse(CommandSender sender, String input)
+		{
+			return Util.matchPlayer(input);
+		}
+
+		@Override
+		public String getError()
+		{
+			return "Player \"&c{0}&4\" not found!";
+		}
+
+		@Override
+		public Completer getCompleter()
+		{
+			return Completers.players();
+		}
+	}
+
+	public static class MaterialArg extends ArgType<Material>
+	{
+		private MaterialArg() { }
+
+		@Override
+		public Material parse(CommandSender sender, String input)
+		{
+			return MaterialUtil.getMaterial(input);
+		}
+
+		@Override
+		public String getError()
+		{
+			return "&c{0} &4is not a valid material.";
+		}
+
+		@Override
+		public Completer getCompleter()
+		{
+			return Completers.materials();
+		}
+	}
+
+	public static class DurationArg extends ArgType<Long>
+	{
+		private DurationArg() { }
+
+		@Override
+		public Long parse(CommandSender sender, String input)
+		{
+			long time = TimeUtil.parseTime(input, Long.MIN_VALUE);
+			return time != Long.MIN_VALUE ? time : null;
+		}
+
+		@Override
+		public String getError()
+		{
+			return "&c{0} &4is not a valid time.";
+		}
+	}
+
+	public static class EnumArg<E extends Enum<E>> extends ArgType<E>
+	{
+		private final E[] constants;
+		private final Completer completer;
+
+		private EnumArg(Class<E> type)
+		{
+			this.constants = type.getEnumConstants();
+			this.completer = Completers.ofEnum(type);
+		}
+
+		@Override
+		public E parse(CommandSender sender, String input)
+		{
+			input = input.replace(' ', '_');
+			for (E constant : constants)
+			{
+				if (constant.name().equalsIgnoreCase(input))
+					return constant;
+			}
+
+			return null;
+		}
+
+		@Override
+		public String getError()
+		{
+			return "&c{0} &4is not valid.";
+		}
+
+		@Override
+		public Completer getCompleter()
+		{
+			return completer;
+		}
+	}
+}
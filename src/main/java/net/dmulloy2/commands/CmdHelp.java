@@ -18,27 +18,49 @@
 package net.dmulloy2.commands;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.OptionalInt;
+
+import org.bukkit.command.CommandSender;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.chat.BaseComponent;
 import net.dmulloy2.chat.ChatUtil;
 import net.dmulloy2.chat.TextComponent;
+import net.dmulloy2.handlers.CommandHandler;
 import net.dmulloy2.types.CommandVisibility;
 import net.dmulloy2.util.FormatUtil;
+import net.dmulloy2.util.NumberUtil;
 
 /**
  * Generic help command. This is a modified implementation of
  * {@link PaginatedCommand} with support for fancy text formatting.
+ * <p>
+ * Help pages are built once for each set of visible commands and cached.
+ * The cache is cleared when commands are registered, when the plugin is
+ * reloaded, and when the {@link CommandProps} change.
  *
  * @author dmulloy2
  */
 
-public class CmdHelp extends Command
+public class CmdHelp extends ContextCommand
 {
 	private static final int linesPerPage = 6;
 	private static final int pageArgIndex = 0;
 
+	// Help menus by the commands that are visible to the sender
+	private final LoadingCache<List<Command>, HelpMenu> menus = CacheBuilder.newBuilder()
+			.maximumSize(64)
+			.build(CacheLoader.from(HelpMenu::new));
+
+	private volatile int handlerModCount = -1;
+	private volatile int propsModCount = -1;
+
 	public CmdHelp(SwornPlugin plugin)
 	{
 		super(plugin);
@@ -50,40 +72,42 @@ public class CmdHelp extends Command
 	}
 
 	@Override
-	public void perform()
+	public void perform(CommandContext context)
 	{
+		String[] args = context.getArgs();
+		HelpMenu menu = getMenu();
+
 		int index = 1;
 		if (args.length > pageArgIndex)
 		{
-			try
+			OptionalInt page = NumberUtil.tryParseInt(args[pageArgIndex]);
+			if (! page.isPresent())
 			{
-				index = Integer.parseInt(args[pageArgIndex]);
-				if (index < 1 || index > getPageCount())
-				{
-					err("&4There is no page with the index &c{0}&4.", index);
-					return;
-				}
+				err("&c{0} &4is not a number.", args[0]);
+				return;
 			}
-			catch (NumberFormatException ex)
+
+			index = page.getAsInt();
+			if (index < 1 || index > menu.pageCount)
 			{
-				err("&c{0} &4is not a number.", args[0]);
+				err("&4There is no page with the index &c{0}&4.", index);
 				return;
 			}
 		}
 		
-		if (isPlayer())
+		if (context.isPlayer())
 		{
 			fancy:
 			{
-				for (BaseComponent[] components : getPage(index))
-					if (! ChatUtil.sendMessageRaw(player, components))
+				for (BaseComponent[] components : menu.getPage(index))
+					if (! ChatUtil.sendMessageRaw(context.getPlayer(), components))
 						break fancy;
 				return;
 			}
 		}
 
 		// Fall back to legacy help
-		for (String line : getLegacyPage(index))
+		for (String line : menu.getLegacyPage(index))
 			sendMessage(line);
 	}
 
@@ -114,151 +138,230 @@ public class CmdHelp extends Command
 
 	public int getPageCount()
 	{
-		return (getListSize() + linesPerPage - 1) / linesPerPage;
+		return getMenu().pageCount;
 	}
 
 	public int getListSize()
 	{
-		return getHelpMenu().size();
+		return getMenu().lines.size();
 	}
 
+	/**
+	 * Gets a page of fancy help. The returned list cannot be modified.
+	 *
+	 * @param index Page index, starting at 1
+	 * @return The page
+	 */
 	public List<BaseComponent[]> getPage(int index)
 	{
-		List<BaseComponent[]> lines = new ArrayList<>();
+		return getMenu().getPage(index);
+	}
 
-		lines.addAll(getHeader(index));
-		lines.addAll(getLines((index - 1) * linesPerPage, index * linesPerPage));
+	/**
+	 * Gets a page of legacy help. The returned list cannot be modified.
+	 *
+	 * @param index Page index, starting at 1
+	 * @return The page
+	 */
+	public List<String> getLegacyPage(int index)
+	{
+		return getMenu().getLegacyPage(index);
+	}
 
-		BaseComponent[] footer = getFooter();
-		if (footer != null)
-			lines.add(footer);
+	public List<BaseComponent[]> getHeader(int index)
+	{
+		return TextComponent.fromLegacyList(getLegacyHeader(index));
+	}
 
-		return lines;
+	public List<String> getLegacyHeader(int index)
+	{
+		return withExtraHelp(buildLegacyHeader(index, getPageCount()), getExtraHelp());
 	}
 
-	public List<String> getLegacyPage(int index)
+	public List<BaseComponent[]> getLines(int startIndex, int endIndex)
 	{
-		List<String> lines = new ArrayList<>();
+		return subList(getMenu().lines, startIndex, endIndex);
+	}
 
-		lines.addAll(getLegacyHeader(index));
-		lines.addAll(getLegacyLines((index - 1) * linesPerPage, index * linesPerPage));
+	public List<String> getLegacyLines(int startIndex, int endIndex)
+	{
+		return subList(getMenu().legacyLines, startIndex, endIndex);
+	}
 
+	public BaseComponent[] getFooter()
+	{
 		String footer = props().getHelpFooter();
-		if (! footer.isEmpty())
-			lines.add(footer);
-
-		return lines;
+		return TextComponent.fromLegacyText(format(footer));
 	}
 
-	public List<BaseComponent[]> getHeader(int index)
+	/**
+	 * Clears the cached help pages. They are cleared automatically when
+	 * commands are registered, when the plugin is reloaded, and when the
+	 * {@link CommandProps} change. {@link SwornPlugin#getExtraHelp() Extra
+	 * help} is not cached.
+	 */
+	public void invalidate()
 	{
-		return TextComponent.fromLegacyList(getLegacyHeader(index));
+		menus.invalidateAll();
 	}
 
-	public List<String> getLegacyHeader(int index)
+	private List<String> buildLegacyHeader(int index, int pageCount)
 	{
 		List<String> ret = new ArrayList<>();
 
-		ret.add(format(getHeader(), plugin.getName(), index, getPageCount()));
-
-		List<String> extraHelp = plugin.getExtraHelp();
-		if (extraHelp != null)
-		{
-			for (String extra : extraHelp)
-				ret.add(FormatUtil.format(extra));
-		}
-
+		ret.add(format(getHeader(), plugin.getName(), index, pageCount));
 		ret.add(format("{b}Key: {h}<required> [optional]"));
 		return ret;
 	}
 
-	public List<BaseComponent[]> getLines(int startIndex, int endIndex)
+	// Extra help can change at any time, so it is added as pages are sent
+	private List<String> getExtraHelp()
 	{
-		List<BaseComponent[]> helpMenu = getHelpMenu();
-		List<BaseComponent[]> lines = new ArrayList<>();
+		List<String> extraHelp = plugin.getExtraHelp();
+		if (extraHelp == null || extraHelp.isEmpty())
+			return Collections.emptyList();
 
-		for (int i = startIndex; i < endIndex && i < getListSize(); i++)
-		{
-			lines.add(helpMenu.get(i));
-		}
+		List<String> ret = new ArrayList<>(extraHelp.size());
+		for (String extra : extraHelp)
+			ret.add(FormatUtil.format(extra));
+		return ret;
+	}
 
-		return lines;
+	// Inserts the extra help after the first line of the header
+	private static <T> List<T> withExtraHelp(List<T> page, List<T> extraHelp)
+	{
+		if (extraHelp.isEmpty() || page.isEmpty())
+			return page;
+
+		List<T> ret = new ArrayList<>(page.size() + extraHelp.size());
+		ret.add(page.get(0));
+		ret.addAll(extraHelp);
+		ret.addAll(page.subList(1, page.size()));
+		return Collections.unmodifiableList(ret);
 	}
 
-	public List<String> getLegacyLines(int startIndex, int endIndex)
+	private static <T> List<T> subList(List<T> list, int startIndex, int endIndex)
 	{
-		List<String> helpMenu = getLegacyHelpMenu();
-		List<String> lines = new ArrayList<>();
+		List<T> lines = new ArrayList<>();
 
-		for (int i = startIndex; i < endIndex && i < getListSize(); i++)
+		for (int i = startIndex; i < endIndex && i < list.size(); i++)
 		{
-			lines.add(helpMenu.get(i));
+			lines.add(list.get(i));
 		}
 
 		return lines;
 	}
 
-	public BaseComponent[] getFooter()
+	private HelpMenu getMenu()
 	{
-		String footer = props().getHelpFooter();
-		return TextComponent.fromLegacyText(format(footer));
-	}
+		CommandHandler handler = plugin.getCommandHandler();
 
-	private List<BaseComponent[]> getHelpMenu()
-	{
-		List<BaseComponent[]> ret = new ArrayList<>();
+		int handlerModCount = handler.getModCount();
+		int propsModCount = props().getModCount();
+		if (handlerModCount != this.handlerModCount || propsModCount != this.propsModCount)
+		{
+			menus.invalidateAll();
+			this.handlerModCount = handlerModCount;
+			this.propsModCount = propsModCount;
+		}
+
+		// Senders who can see the same commands share the same menu
+		CommandSender sender = getSender();
+		List<Command> visible = new ArrayList<>();
 
-		for (Command cmd : plugin.getCommandHandler().getRegisteredPrefixedCommands())
+		if (handler.usesCommandPrefix())
 		{
-			if (cmd.isVisibleTo(sender))
+			for (Command cmd : handler.getRegisteredPrefixedCommands())
 			{
-				ret.addAll(cmd.getFancyUsageTemplate(true));
-
-				if (cmd.hasSubCommands())
-					ret.addAll(cmd.getFancySubCommandHelp(true));
+				if (cmd.isListedTo(sender))
+					visible.add(cmd);
 			}
 		}
 
-		for (Command cmd : plugin.getCommandHandler().getRegisteredCommands())
+		for (Command cmd : handler.getRegisteredCommands())
 		{
-			if (cmd.isVisibleTo(sender))
-			{
-				ret.addAll(cmd.getFancyUsageTemplate(true));
-
-				if (cmd.hasSubCommands())
-					ret.addAll(cmd.getFancySubCommandHelp(true));
-			}
+			if (cmd.isListedTo(sender))
+				visible.add(cmd);
 		}
 
-		return ret;
+		return menus.getUnchecked(visible);
 	}
 
-	private List<String> getLegacyHelpMenu()
+	private class HelpMenu
 	{
-		List<String> ret = new ArrayList<>();
+		private final List<BaseComponent[]> lines;
+		private final List<String> legacyLines;
+		private final int pageCount;
+
+		private final List<List<BaseComponent[]>> pages;
+		private final List<List<String>> legacyPages;
 
-		for (Command cmd : plugin.getCommandHandler().getRegisteredPrefixedCommands())
+		private HelpMenu(List<Command> commands)
 		{
-			if (cmd.isVisibleTo(sender))
+			this.lines = new ArrayList<>();
+			this.legacyLines = new ArrayList<>();
+
+			for (Command cmd : commands)
 			{
-				ret.addAll(cmd.getUsageTemplate(true));
+				lines.addAll(cmd.getFancyUsageTemplate(true));
+				legacyLines.addAll(cmd.getUsageTemplate(true));
 
 				if (cmd.hasSubCommands())
-					ret.addAll(cmd.getSubCommandHelp(true));
+				{
+					lines.addAll(cmd.getFancySubCommandHelp(true));
+					legacyLines.addAll(cmd.getSubCommandHelp(true));
+				}
+			}
+
+			this.pageCount = (lines.size() + linesPerPage - 1) / linesPerPage;
+			this.pages = new ArrayList<>(pageCount);
+			this.legacyPages = new ArrayList<>(pageCount);
+
+			for (int index = 1; index <= pageCount; index++)
+			{
+				pages.add(buildPage(index));
+				legacyPages.add(buildLegacyPage(index));
 			}
 		}
 
-		for (Command cmd : plugin.getCommandHandler().getRegisteredCommands())
+		private List<BaseComponent[]> getPage(int index)
 		{
-			if (cmd.isVisibleTo(sender))
-			{
-				ret.addAll(cmd.getUsageTemplate(true));
+			List<BaseComponent[]> page = index >= 1 && index <= pageCount ? pages.get(index - 1) : buildPage(index);
+			return withExtraHelp(page, TextComponent.fromLegacyList(getExtraHelp()));
+		}
 
-				if (cmd.hasSubCommands())
-					ret.addAll(cmd.getSubCommandHelp(true));
-			}
+		private List<String> getLegacyPage(int index)
+		{
+			List<String> page = index >= 1 && index <= pageCount ? legacyPages.get(index - 1) : buildLegacyPage(index);
+			return withExtraHelp(page, getExtraHelp());
 		}
 
-		return ret;
+		private List<BaseComponent[]> buildPage(int index)
+		{
+			List<BaseComponent[]> page = new ArrayList<>();
+
+			page.addAll(TextComponent.fromLegacyList(buildLegacyHeader(index, pageCount)));
+			page.addAll(subList(lines, (index - 1) * linesPerPage, index * linesPerPage));
+
+			BaseComponent[] footer = getFooter();
+			if (footer != null)
+				page.add(footer);
+
+			return Collections.unmodifiableList(page);
+		}
+
+		private List<String> buildLegacyPage(int index)
+		{
+			List<String> page = new ArrayList<>();
+
+			page.addAll(buildLegacyHeader(index, pageCount));
+			page.addAll(subList(legacyLines, (index - 1) * linesPerPage, index * linesPerPage));
+
+			String footer = props().getHelpFooter();
+			if (! footer.isEmpty())
+				page.add(footer);
+
+			return Collections.unmodifiableList(page);
+		}
 	}
 }
@@ -0,0 +1,131 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import net.dmulloy2.SwornPlugin;
+import net.dmulloy2.exception.CommandException.Reason;
+import net.dmulloy2.handlers.CommandHandler;
+import net.dmulloy2.types.CommandVisibility;
+
+/**
+ * Generic command metrics command. Shows how long each command takes to
+ * execute, and how often it fails.
+ * @author dmulloy2
+ *
+ * @see Command#getMetrics()
+ * @see CommandProps#setSlowCommandThreshold(long)
+ */
+public class CmdMetrics extends ContextCommand
+{
+	public CmdMetrics(SwornPlugin plugin)
+	{
+		super(plugin);
+		this.name = "metrics";
+		this.addOptionalArg("reset");
+		this.description = "Show " + plugin.getName() + " command metrics";
+		this.visibility = CommandVisibility.OPS;
+		this.usesPrefix = true;
+	}
+
+	@Override
+	public void perform(CommandContext context)
+	{
+		if (context.getArgCount() > 0 && context.getArg(0).equalsIgnoreCase("reset"))
+		{
+			forEachCommand(command -> command.getMetrics().reset());
+			plugin.getCommandHandler().getDispatchMetrics().reset();
+			sendpMessage("Command metrics have been reset.");
+			return;
+		}
+
+		for (String line : getTable())
+			context.getSender().sendMessage(line);
+	}
+
+	/**
+	 * Gets a table of the metrics for every registered command and
+	 * sub-command that has been executed.
+	 *
+	 * @return The lines of the table
+	 */
+	public List<String> getTable()
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add(format("{h}---- {b}{0} Command Metrics {h}----", plugin.getName()));
+		lines.add(format("{b}Times are in ms: {h}avg{b}/{h}p50{b}/{h}p99{b}/{h}max"));
+
+		forEachCommand(command -> addLine(lines, getPath(command), command.getMetrics()));
+
+		CommandHandler handler = plugin.getCommandHandler();
+		if (handler.usesCommandPrefix())
+			addLine(lines, "/" + handler.getCommandPrefix() + " (dispatch)", handler.getDispatchMetrics());
+
+		return lines;
+	}
+
+	private void addLine(List<String> lines, String name, CommandMetrics metrics)
+	{
+		long invocations = metrics.getInvocations();
+		if (invocations == 0)
+			return;
+
+		long failures = 0;
+		for (Reason reason : Reason.values())
+		{
+			if (reason != Reason.BREAK)
+				failures += metrics.getFailures(reason);
+		}
+
+		lines.add(format("{a}{0} {b}calls: {h}{1} {b}time: {h}{2}{b}/{h}{3}{b}/{h}{4}{b}/{h}{5} {b}failed: {h}{6} {b}errors: {h}{7}",
+				name, invocations, String.format("%.2f", metrics.getAverage()), String.format("%.2f", metrics.getPercentile(0.5D)),
+				String.format("%.2f", metrics.getPercentile(0.99D)), String.format("%.2f", metrics.getMax()), failures,
+				metrics.getErrors()));
+	}
+
+	private String getPath(Command command)
+	{
+		StringBuilder path = new StringBuilder(command.getName());
+		for (Command parent = command.getParentCommand(); parent != null; parent = parent.getParentCommand())
+			path.insert(0, parent.getName() + " ");
+		return path.toString();
+	}
+
+	private void forEachCommand(Consumer<Command> action)
+	{
+		CommandHandler handler = plugin.getCommandHandler();
+		if (handler.usesCommandPrefix())
+		{
+			for (Command command : handler.getRegisteredPrefixedCommands())
+				forEachCommand(command, action);
+		}
+
+		for (Command command : handler.getRegisteredCommands())
+			forEachCommand(command, action);
+	}
+
+	private void forEachCommand(Command command, Consumer<Command> action)
+	{
+		action.accept(command);
+		for (SubCommand subCommand : command.getSubCommands())
+			forEachCommand(subCommand, action);
+	}
+}
@@ -17,17 +17,22 @@
  */
 package net.dmulloy2.commands;
 
+import java.util.logging.Level;
+
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.types.IPermission;
+import net.dmulloy2.util.Util;
+
+import org.bukkit.command.CommandSender;
 
 /**
  * Generic plugin reload command
  * @author dmulloy2
  * 
- * @see SwornPlugin#reload()
+ * @see SwornPlugin#reloadAsync()
  * @see CommandProps#setReloadPerm(IPermission)
  */
-public class CmdReload extends Command
+public class CmdReload extends ContextCommand
 {
 	public CmdReload(SwornPlugin plugin)
 	{
@@ -39,19 +44,30 @@ public class CmdReload extends Command
 	}
 
 	@Override
-	public void perform()
+	public void perform(CommandContext context)
 	{
 		long start = System.currentTimeMillis();
-		
-		if (isPlayer())
-			plugin.getLogHandler().log("{0} is reloading the plugin", player.getName());
+		CommandSender sender = context.getSender();
+		String name = context.isPlayer() ? context.getPlayer().getName() : null;
+
+		if (name != null)
+			plugin.getLogHandler().log("{0} is reloading the plugin", name);
 		sendpMessage("Reloading &b{0}&e...", plugin.getName());
 
-		plugin.reload();
+		// Messages are sent from the main thread, whichever thread completes the reload
+		plugin.reloadAsync().whenCompleteAsync((result, ex) ->
+		{
+			long time = System.currentTimeMillis() - start;
+			if (ex != null)
+			{
+				plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "reloading " + plugin.getName()));
+				err(sender, "Failed to reload {0}: {1}", plugin.getName(), ex.toString());
+				return;
+			}
 
-		if (isPlayer())
-			plugin.getLogHandler().log("{0} reloaded the plugin. Took {1} ms",
-					player.getName(), System.currentTimeMillis() - start);
-		sendpMessage("Reload complete! Took &b{0} &ems!", System.currentTimeMillis() - start);
+			if (name != null)
+				plugin.getLogHandler().log("{0} reloaded the plugin. Took {1} ms", name, time);
+			sendpMessage(sender, "Reload complete! Took &b{0} &ems!", time);
+		}, task -> plugin.getServer().getScheduler().runTask(plugin, task));
 	}
 }
\ No newline at end of file
@@ -19,21 +19,34 @@ package net.dmulloy2.commands;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.command.BlockCommandSender;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.minecart.CommandMinecart;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.chat.BaseComponent;
@@ -45,11 +58,13 @@ import net.dmulloy2.chat.HoverEvent.Action;
 import net.dmulloy2.chat.TextComponent;
 import net.dmulloy2.exception.CommandException;
 import net.dmulloy2.exception.CommandException.Reason;
+import net.dmulloy2.handlers.CommandHandler;
 import net.dmulloy2.types.CommandVisibility;
 import net.dmulloy2.types.IPermission;
 import net.dmulloy2.types.StringJoiner;
 import net.dmulloy2.util.FormatUtil;
 import net.dmulloy2.util.ListUtil;
+import net.dmulloy2.util.NumberUtil;
 import net.dmulloy2.util.Util;
 
 /**
@@ -59,7 +74,7 @@ import net.dmulloy2.util.Util;
  * @author dmulloy2
  */
 
-public abstract class Command implements CommandExecutor
+public abstract class Command implements CommandExecutor, TabCompleter
 {
 	protected final SwornPlugin plugin;
 
@@ -76,6 +91,8 @@ public abstract class Command implements CommandExecutor
 	protected List<SubCommand> subCommands;
 	protected Command parent;
 
+	private final CommandIndex<SubCommand> subCommandIndex;
+
 	protected List<Syntax> syntaxes;
 	protected List<String> aliases;
 
@@ -84,11 +101,28 @@ public abstract class Command implements CommandExecutor
 	protected boolean mustBePlayer;
 	protected boolean usesPrefix;
 
+	/**
+	 * Whether or not this command is performed off of the main thread, on the
+	 * {@link CommandHandler#getAsyncExecutor() command workers}. Async
+	 * commands should use {@link #runSync(Runnable)} or
+	 * {@link #callSync(Callable)} for anything that touches the Bukkit API.
+	 */
+	protected boolean runsAsync;
+
+	private final ThreadLocal<CommandContext> context = new ThreadLocal<>();
+	private final CommandMetrics metrics = new CommandMetrics();
+
+	private final LongAdder asyncExecutions = new LongAdder();
+	private final LongAdder asyncNanos = new LongAdder();
+	private final LongAdder asyncQueueNanos = new LongAdder();
+	private final LongAccumulator asyncMaxNanos = new LongAccumulator(Math::max, 0L);
+
 	public Command(SwornPlugin plugin)
 	{
 		this.plugin = plugin;
 		this.aliases = new ArrayList<>();
 		this.subCommands = new ArrayList<>();
+		this.subCommandIndex = new CommandIndex<>(() -> subCommands);
 		this.syntaxes = new ArrayList<>();
 		syntaxes.add(new Syntax());
 	}
@@ -105,7 +139,7 @@ public abstract class Command implements CommandExecutor
 	/**
 	 * Executes this command with a given sender and arguments. This method
 	 * performs all of the permission and argument length checks before passing
-	 * the call to {@link #perform()}.
+	 * the call to {@link #perform(CommandContext)}.
 	 * 
 	 * @param sender Sender of this command
 	 * @param args Arguments
@@ -114,23 +148,59 @@ public abstract class Command implements CommandExecutor
 	{
 		if (! subCommands.isEmpty() && args.length != 0)
 		{
-			for (SubCommand subCommand : subCommands)
+			SubCommand subCommand = subCommandIndex.get(args[0]);
+			if (subCommand != null)
 			{
-				if (subCommand.argMatchesIdentifier(args[0]))
-				{
-					args = Arrays.copyOfRange(args, 1, args.length);
-					subCommand.execute(sender, args);
-					return;
-				}
+				args = Arrays.copyOfRange(args, 1, args.length);
+				subCommand.execute(sender, args);
+				return;
 			}
 		}
 
-		this.sender = sender;
-		this.args = args;
-		if (sender instanceof Player)
-			player = (Player) sender;
+		execute(new CommandContext(this, sender, args));
+	}
 
-		if (mustBePlayer && ! isPlayer())
+	/**
+	 * Executes this command with a given context. The context is available
+	 * to the helper methods on the current thread until execution finishes.
+	 *
+	 * @param context Execution context
+	 */
+	private void execute(CommandContext context)
+	{
+		withContext(context, () -> run(context));
+	}
+
+	private void withContext(CommandContext context, Runnable task)
+	{
+		if (context == null)
+		{
+			task.run();
+			return;
+		}
+
+		CommandContext previous = this.context.get();
+		this.context.set(context);
+
+		try
+		{
+			task.run();
+		}
+		finally
+		{
+			if (previous != null)
+				this.context.set(previous);
+			else
+				this.context.remove();
+		}
+	}
+
+	private void run(CommandContext context)
+	{
+		CommandSender sender = context.getSender();
+		String[] args = context.getArgs();
+
+		if (mustBePlayer && ! context.isPlayer())
 		{
 			err("You must be a player to perform this command!");
 			return;
@@ -142,7 +212,7 @@ public abstract class Command implements CommandExecutor
 			{
 				if (syntax.requiredSize() <= args.length)
 				{
-					this.syntax = syntax;
+					context.setSyntax(syntax);
 					break syntax;
 				}
 			}
@@ -160,13 +230,143 @@ public abstract class Command implements CommandExecutor
 			return;
 		}
 
+		if (! parseArguments(context))
+			return;
+
+		if (runsAsync)
+		{
+			performAsync(context);
+			return;
+		}
+
+		long start = System.nanoTime();
+		Throwable error = null;
+
 		try
 		{
-			perform();
+			perform(context);
 		}
-		catch (CommandException ex)
+		catch (Throwable ex)
 		{
-			switch (ex.getReason())
+			error = ex;
+		}
+
+		recordInvocation(context, System.nanoTime() - start, false);
+
+		if (error != null)
+			handleException(context, error);
+	}
+
+	/**
+	 * Parses the typed arguments of a context. If the selected syntax has
+	 * typed arguments that can't be parsed, later syntaxes that fit the
+	 * arguments are tried before giving up.
+	 *
+	 * @param context Context to parse
+	 * @return True if the arguments were parsed, false if an error was shown
+	 */
+	private boolean parseArguments(CommandContext context)
+	{
+		String[] args = context.getArgs();
+		Syntax first = context.getSyntax();
+		if (! first.isTyped())
+			return true;
+
+		for (int i = syntaxes.indexOf(first); i < syntaxes.size(); i++)
+		{
+			Syntax syntax = syntaxes.get(i);
+			if (syntax.requiredSize() > args.length)
+				continue;
+
+			Object[] values = syntax.parse(context.getSender(), args);
+			if (values != null)
+			{
+				context.setSyntax(syntax);
+				context.setValues(values);
+				return true;
+			}
+		}
+
+		// Report the first argument that failed in the selected syntax
+		for (int i = 0; i < first.size() && i < args.length; i++)
+		{
+			ArgType<?> type = first.get(i).getType();
+			if (type != null && type.parse(context.getSender(), args[i]) == null)
+			{
+				err(type.getError(), args[i]);
+				break;
+			}
+		}
+
+		return false;
+	}
+
+	private void performAsync(CommandContext context)
+	{
+		long queued = System.nanoTime();
+
+		try
+		{
+			plugin.getCommandHandler().getAsyncExecutor().execute(() -> withContext(context, () ->
+			{
+				long start = System.nanoTime();
+
+				try
+				{
+					perform(context);
+				}
+				catch (Throwable ex)
+				{
+					runSync(() -> handleException(context, ex));
+				}
+				finally
+				{
+					long end = System.nanoTime();
+					recordInvocation(context, end - start, true);
+
+					asyncExecutions.increment();
+					asyncNanos.add(end - start);
+					asyncQueueNanos.add(start - queued);
+					asyncMaxNanos.accumulate(end - start);
+
+					plugin.getLogHandler().debug("Async command {0} took {1} ms ({2} ms queued)", name,
+							TimeUnit.NANOSECONDS.toMillis(end - start), TimeUnit.NANOSECONDS.toMillis(start - queued));
+				}
+			}));
+		}
+		catch (RejectedExecutionException ex)
+		{
+			err("Too many commands are running. Please try again in a moment.");
+		}
+	}
+
+	private void recordInvocation(CommandContext context, long nanos, boolean async)
+	{
+		metrics.record(nanos);
+
+		long threshold = props().getSlowCommandThreshold();
+		if (threshold > 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(threshold))
+		{
+			plugin.getLogHandler().log(Level.WARNING, "Slow {0}command \"{1}\" took {2} ms for {3} with arguments [{4}]",
+					async ? "async " : "", name, TimeUnit.NANOSECONDS.toMillis(nanos), context.getSender().getName(),
+					String.join(" ", context.getArgs()));
+		}
+	}
+
+	private void handleException(CommandContext context, Throwable ex)
+	{
+		// Unwrap exceptions from runSync and callSync
+		while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null)
+			ex = ex.getCause();
+
+		if (ex instanceof CommandException)
+			metrics.recordFailure(((CommandException) ex).getReason());
+		else
+			metrics.recordError();
+
+		if (ex instanceof CommandException)
+		{
+			switch (((CommandException) ex).getReason())
 			{
 				case BREAK:
 					break;
@@ -175,11 +375,11 @@ public abstract class Command implements CommandExecutor
 					err(ex.getMessage());
 					break;
 				case SYNTAX:
-					invalidSyntax(args);
+					invalidSyntax(context.getArgs());
 					break;
 			}
 		}
-		catch (Throwable ex)
+		else
 		{
 			String stack = Util.getUsefulStack(ex, "executing command " + name);
 			plugin.getLogHandler().log(Level.WARNING, stack);
@@ -192,11 +392,189 @@ public abstract class Command implements CommandExecutor
 		}
 	}
 
+	/**
+	 * Runs a task on the main thread. If this is called during an execution,
+	 * the task has access to the same sender and arguments. If the current
+	 * thread is the main thread, the task is run immediately.
+	 *
+	 * @param task Task to run
+	 * @return A future that completes once the task has run
+	 */
+	protected final CompletableFuture<Void> runSync(Runnable task)
+	{
+		Validate.notNull(task, "task cannot be null!");
+
+		return callSync(() ->
+		{
+			task.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Calls a task on the main thread and returns its result. Async commands
+	 * can {@link CompletableFuture#join() join} the future to wait for it.
+	 * The future is cancelled if the plugin is disabled before the task runs.
+	 * Exceptions thrown by the task, including {@link CommandException}s,
+	 * complete the future exceptionally and are reported to the sender if
+	 * they are rethrown from {@link #perform(CommandContext)}.
+	 *
+	 * @param task Task to call
+	 * @return A future for the result of the task
+	 * @see #runSync(Runnable)
+	 */
+	protected final <T> CompletableFuture<T> callSync(Callable<T> task)
+	{
+		Validate.notNull(task, "task cannot be null!");
+
+		CommandContext context = getContext();
+		CompletableFuture<T> future = new CompletableFuture<>();
+
+		Runnable runnable = () -> withContext(context, () ->
+		{
+			try
+			{
+				future.complete(task.call());
+			}
+			catch (Throwable ex)
+			{
+				future.completeExceptionally(ex);
+			}
+		});
+
+		if (Bukkit.isPrimaryThread())
+		{
+			runnable.run();
+			return future;
+		}
+
+		try
+		{
+			plugin.getCommandHandler().registerSyncCall(future);
+			plugin.getServer().getScheduler().runTask(plugin, runnable);
+		}
+		catch (Throwable ex)
+		{
+			future.completeExceptionally(ex);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Gets the execution metrics for this command.
+	 *
+	 * @return The metrics
+	 */
+	public final CommandMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * Gets the number of times this command has been performed asynchronously.
+	 *
+	 * @return The number of async executions
+	 */
+	public final long getAsyncExecutions()
+	{
+		return asyncExecutions.sum();
+	}
+
+	/**
+	 * Gets the average time this command took to perform asynchronously, not
+	 * including time spent waiting for a worker.
+	 *
+	 * @return The average time in milliseconds
+	 */
+	public final double getAverageAsyncTime()
+	{
+		long executions = asyncExecutions.sum();
+		return executions == 0 ? 0.0D : asyncNanos.sum() / (executions * 1000000.0D);
+	}
+
+	/**
+	 * Gets the average time this command waited for a worker.
+	 *
+	 * @return The average time in milliseconds
+	 */
+	public final double getAverageAsyncQueueTime()
+	{
+		long executions = asyncExecutions.sum();
+		return executions == 0 ? 0.0D : asyncQueueNanos.sum() / (executions * 1000000.0D);
+	}
+
+	/**
+	 * Gets the longest time this command took to perform asynchronously.
+	 *
+	 * @return The longest time in milliseconds
+	 */
+	public final double getMaxAsyncTime()
+	{
+		return asyncMaxNanos.get() / 1000000.0D;
+	}
+
+	/**
+	 * Performs this command after permission and argument length checks.
+	 * By default, this sets the {@link #sender}, {@link #player},
+	 * {@link #args}, and {@link #syntax} fields and calls {@link #perform()},
+	 * so executions are done one at a time. Commands that can be executed
+	 * from multiple threads at once should extend {@link ContextCommand}.
+	 *
+	 * @param context Execution context
+	 */
+	public void perform(CommandContext context)
+	{
+		synchronized (this)
+		{
+			this.sender = context.getSender();
+			this.player = context.getPlayer();
+			this.args = context.getArgs();
+			this.syntax = context.getSyntax();
+
+			perform();
+		}
+	}
+
 	/**
 	 * Performs this command after permission and argument length checks.
 	 */
 	public abstract void perform();
 
+	/**
+	 * Gets the context of the execution in progress on the current thread.
+	 *
+	 * @return The context, or null if this command is not being executed
+	 */
+	protected final CommandContext getContext()
+	{
+		return context.get();
+	}
+
+	/**
+	 * Gets the sender of the execution in progress on the current thread,
+	 * falling back to the {@link #sender} field.
+	 *
+	 * @return The sender
+	 */
+	protected final CommandSender getSender()
+	{
+		CommandContext context = this.context.get();
+		return context != null ? context.getSender() : sender;
+	}
+
+	/**
+	 * Gets the arguments of the execution in progress on the current thread,
+	 * falling back to the {@link #args} field.
+	 *
+	 * @return The arguments
+	 */
+	protected final String[] getArgs()
+	{
+		CommandContext context = this.context.get();
+		return context != null ? context.getArgs() : args;
+	}
+
 	/**
 	 * Whether or not the sender of this command is a {@link Player}.
 	 * 
@@ -204,7 +582,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final boolean isPlayer()
 	{
-		return sender instanceof Player;
+		return getSender() instanceof Player;
 	}
 
 	// ---- Permission Management
@@ -262,7 +640,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final boolean hasPermission(IPermission permission, boolean message)
 	{
-		return hasPermission(sender, permission, message);
+		return hasPermission(getSender(), permission, message);
 	}
 
 	/**
@@ -273,7 +651,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final boolean hasPermission(IPermission permission)
 	{
-		return hasPermission(sender, permission, false);
+		return hasPermission(getSender(), permission, false);
 	}
 
 	/**
@@ -307,6 +685,25 @@ public abstract class Command implements CommandExecutor
 	 * @return True if it is, false if not
 	 */
 	public final boolean isVisibleTo(CommandSender sender)
+	{
+		return isVisibleTo(sender, false);
+	}
+
+	/**
+	 * Whether or not this command should be listed to a given command sender,
+	 * such as in help menus and tab completion. This is the same as
+	 * {@link #isVisibleTo(CommandSender)}, but permission checks may be cached.
+	 * 
+	 * @param sender Sender to check
+	 * @return True if it should, false if not
+	 * @see net.dmulloy2.handlers.PermissionHandler#hasCachedPermission(CommandSender, IPermission)
+	 */
+	public final boolean isListedTo(CommandSender sender)
+	{
+		return isVisibleTo(sender, true);
+	}
+
+	private boolean isVisibleTo(CommandSender sender, boolean cached)
 	{
 		Validate.notNull(sender, "sender cannot be null!");
 		
@@ -315,6 +712,8 @@ public abstract class Command implements CommandExecutor
 			case ALL:
 				return true;
 			case PERMISSION:
+				if (cached)
+					return plugin.getPermissionHandler().hasCachedPermission(sender, permission);
 				return hasPermission(sender, permission, false);
 			case OPS:
 				return sender.isOp();
@@ -346,7 +745,7 @@ public abstract class Command implements CommandExecutor
 	protected final void err(String message, Object... args)
 	{
 		Validate.notNull(message, "message cannot be null!");
-		sender.sendMessage(format(props().getErrorPrefix() + message, args));
+		getSender().sendMessage(format(props().getErrorPrefix() + message, args));
 	}
 
 	/**
@@ -358,7 +757,7 @@ public abstract class Command implements CommandExecutor
 	protected final void sendpMessage(String message, Object... args)
 	{
 		Validate.notNull(message, "message cannot be null!");
-		sender.sendMessage(format(plugin.getPrefix() + message, args));
+		getSender().sendMessage(format(plugin.getPrefix() + message, args));
 	}
 
 	/**
@@ -370,7 +769,7 @@ public abstract class Command implements CommandExecutor
 	protected final void sendMessage(String message, Object... args)
 	{
 		Validate.notNull(message, "message cannot be null");
-		sender.sendMessage(format(props().getBaseColor() + message, args));
+		getSender().sendMessage(format(props().getBaseColor() + message, args));
 	}
 
 	/**
@@ -426,7 +825,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final void sendMessage(BaseComponent... components)
 	{
-		sendMessage(sender, components);
+		sendMessage(getSender(), components);
 	}
 
 	/**
@@ -607,6 +1006,72 @@ public abstract class Command implements CommandExecutor
 		return descriptionList;
 	}
 
+	// ---- Tab Completion
+
+	@Override
+	public final List<String> onTabComplete(CommandSender sender, org.bukkit.command.Command command, String label, String[] args)
+	{
+		return tabComplete(sender, args);
+	}
+
+	/**
+	 * Gets the possible completions for the last of a given array of
+	 * arguments. Sub-commands are completed by name, and arguments are
+	 * completed by their {@link Completer}s.
+	 *
+	 * @param sender Sender who is completing the command
+	 * @param args Arguments typed so far, the last of which is being completed
+	 * @return The completions, or null if no argument has a completer, which
+	 *         makes Bukkit complete player names
+	 */
+	public List<String> tabComplete(CommandSender sender, String[] args)
+	{
+		Validate.notNull(sender, "sender cannot be null!");
+		Validate.notNull(args, "args cannot be null!");
+
+		if (args.length == 0 || ! isListedTo(sender))
+			return new ArrayList<>();
+
+		if (! subCommands.isEmpty() && args.length > 1)
+		{
+			SubCommand subCommand = subCommandIndex.get(args[0]);
+			if (subCommand != null)
+				return subCommand.tabComplete(sender, Arrays.copyOfRange(args, 1, args.length));
+		}
+
+		int index = args.length - 1;
+		String prefix = args[index];
+
+		Set<String> ret = new LinkedHashSet<>();
+		boolean completed = false;
+
+		if (index == 0 && ! subCommands.isEmpty())
+		{
+			completed = true;
+			for (SubCommand subCommand : subCommands)
+			{
+				String name = subCommand.getName();
+				if (name.regionMatches(true, 0, prefix, 0, prefix.length()) && subCommand.isListedTo(sender))
+					ret.add(name);
+			}
+		}
+
+		for (Syntax syntax : syntaxes)
+		{
+			if (syntax.size() > index)
+			{
+				Completer completer = syntax.get(index).getCompleter();
+				if (completer != null)
+				{
+					completed = true;
+					ret.addAll(completer.complete(sender, prefix));
+				}
+			}
+		}
+
+		return completed ? new ArrayList<>(ret) : null;
+	}
+
 	// ---- Sub Commands
 
 	/**
@@ -724,20 +1189,21 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final int argAsInt(int index, boolean msg)
 	{
+		String[] args = getArgs();
 		if (args.length <= index)
 			throw new CommandException(Reason.SYNTAX);
 
+		Object value = getValue(index);
+		if (value instanceof Integer)
+			return (Integer) value;
+
 		String arg = args[index];
+		OptionalInt parsed = NumberUtil.tryParseInt(arg);
+		if (parsed.isPresent())
+			return parsed.getAsInt();
 
-		try
-		{
-			return Integer.parseInt(arg);	
-		}
-		catch (NumberFormatException ex)
-		{
-			if (msg) throw new CommandException(Reason.INPUT, "&c{0} &4is not a number.", arg);
-			else return -1;
-		}
+		if (msg) throw new CommandException(Reason.INPUT, "&c{0} &4is not a number.", arg);
+		else return -1;
 	}
 
 	/**
@@ -749,20 +1215,21 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final double argAsDouble(int index, boolean msg)
 	{
+		String[] args = getArgs();
 		if (args.length <= index)
 			throw new CommandException(Reason.SYNTAX);
 		
+		Object value = getValue(index);
+		if (value instanceof Number)
+			return ((Number) value).doubleValue();
+
 		String arg = args[index];
+		OptionalDouble parsed = NumberUtil.tryParseDouble(arg);
+		if (parsed.isPresent())
+			return parsed.getAsDouble();
 
-		try
-		{
-			return Double.parseDouble(arg);
-		}
-		catch (NumberFormatException ex)
-		{
-			if (msg) throw new CommandException(Reason.INPUT, "&c{0} &4is not a number.", arg);
-			else return -1.0D;
-		}
+		if (msg) throw new CommandException(Reason.INPUT, "&c{0} &4is not a number.", arg);
+		else return -1.0D;
 	}
 
 	/**
@@ -786,6 +1253,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected boolean argAsBoolean(int arg, boolean def)
 	{
+		String[] args = getArgs();
 		return args.length > arg ? Util.toBoolean(args[arg]) : def;
 	}
 
@@ -796,14 +1264,32 @@ public abstract class Command implements CommandExecutor
 
 	protected Player getPlayer(int index, boolean message)
 	{
+		String[] args = getArgs();
 		if (args.length <= index)
 			throw new CommandException(Reason.SYNTAX);
 
+		Object value = getValue(index);
+		if (value instanceof Player)
+			return (Player) value;
+
 		String arg = args[index];
 		Player player = Util.matchPlayer(arg);
 		return message ? checkNotNull(player, "Player \"&c{0}&4\" not found!", arg) : player;
 	}
 
+	/**
+	 * Gets the parsed value of a typed argument in the current context.
+	 *
+	 * @param index Argument index
+	 * @return The value, or null if the argument was not given or is not typed
+	 * @see CommandContext#getValue(int)
+	 */
+	protected final <T> T getValue(int index)
+	{
+		CommandContext context = getContext();
+		return context != null ? context.getValue(index) : null;
+	}
+
 	protected <T> T checkNotNull(T value, String message, Object... args)
 	{
 		if (value == null)
@@ -832,6 +1318,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final String getFinalArg(int start)
 	{
+		String[] args = getArgs();
 		StringBuilder ret = new StringBuilder();
 		for (int i = start; i < args.length; i++)
 		{
@@ -915,7 +1402,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final String getName(CommandSender target)
 	{
-		return getName(sender, target, false);
+		return getName(getSender(), target, false);
 	}
 
 	// ---- Syntax
@@ -925,7 +1412,7 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final void invalidSyntax()
 	{
-		invalidSyntax(args);
+		invalidSyntax(getArgs());
 	}
 
 	/**
@@ -1006,8 +1493,39 @@ public abstract class Command implements CommandExecutor
 	 */
 	protected final void addArgument(String arg, String explanation, boolean required)
 	{
-		Syntax syntax = syntaxes.get(syntaxes.size() - 1);
-		syntax.add(new Argument(arg, explanation, required));
+		addArgument(arg, explanation, required, (Completer) null);
+	}
+
+	/**
+	 * Adds a argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param required Whether or not it is required
+	 * @param completer Tab completer for the argument, can be null
+	 * @see Completers
+	 */
+	protected final void addArgument(String arg, String explanation, boolean required, Completer completer)
+	{
+		Argument argument = new Argument(arg, explanation, required);
+		argument.setCompleter(completer);
+		syntaxes.get(syntaxes.size() - 1).add(argument);
+	}
+
+	/**
+	 * Adds a typed argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param required Whether or not it is required
+	 * @param type Type of the argument
+	 * @see ArgType
+	 */
+	protected final void addArgument(String arg, String explanation, boolean required, ArgType<?> type)
+	{
+		Argument argument = new Argument(arg, explanation, required);
+		argument.setType(type);
+		syntaxes.get(syntaxes.size() - 1).add(argument);
 	}
 
 	/**
@@ -1052,13 +1570,75 @@ public abstract class Command implements CommandExecutor
 		addArgument(arg, explanation, false);
 	}
 
+	/**
+	 * Adds a required argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param completer Tab completer for the argument
+	 */
+	protected final void addRequiredArg(String arg, String explanation, Completer completer)
+	{
+		addArgument(arg, explanation, true, completer);
+	}
+
+	/**
+	 * Adds an optional argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param completer Tab completer for the argument
+	 */
+	protected final void addOptionalArg(String arg, String explanation, Completer completer)
+	{
+		addArgument(arg, explanation, false, completer);
+	}
+
+	/**
+	 * Adds a typed required argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param type Type of the argument
+	 */
+	protected final void addRequiredArg(String arg, String explanation, ArgType<?> type)
+	{
+		addArgument(arg, explanation, true, type);
+	}
+
+	/**
+	 * Adds a typed optional argument to the current syntax.
+	 * 
+	 * @param arg Argument name
+	 * @param explanation Short description for the argument
+	 * @param type Type of the argument
+	 */
+	protected final void addOptionalArg(String arg, String explanation, ArgType<?> type)
+	{
+		addArgument(arg, explanation, false, type);
+	}
+
 	@Data
-	@AllArgsConstructor
 	public class Argument
 	{
 		private final String argument;
 		private final String explanation;
 		private final boolean required;
+		private Completer completer;
+		private ArgType<?> type;
+
+		/**
+		 * Gets the tab completer for this argument, falling back to the
+		 * completer of its type.
+		 * 
+		 * @return The completer, or null if none
+		 */
+		public Completer getCompleter()
+		{
+			if (completer != null)
+				return completer;
+			return type != null ? type.getCompleter() : null;
+		}
 	}
 
 	public class Syntax extends ArrayList<Argument>
@@ -1088,6 +1668,42 @@ public abstract class Command implements CommandExecutor
 			return ret;
 		}
 
+		/**
+		 * Whether or not any argument in this Syntax is typed.
+		 * 
+		 * @return True if one is, false if not
+		 */
+		public final boolean isTyped()
+		{
+			for (Argument arg : this)
+			{
+				if (arg.getType() != null)
+					return true;
+			}
+
+			return false;
+		}
+
+		/**
+		 * Parses the typed arguments in a given array of arguments.
+		 * 
+		 * @param sender Sender of the command
+		 * @param args Arguments to parse
+		 * @return The parsed values by index, or null if one is invalid
+		 */
+		public final Object[] parse(CommandSender sender, String[] args)
+		{
+			Object[] values = new Object[Math.min(size(), args.length)];
+			for (int i = 0; i < values.length; i++)
+			{
+				ArgType<?> type = get(i).getType();
+				if (type != null && (values[i] = type.parse(sender, args[i])) == null)
+					return null;
+			}
+
+			return values;
+		}
+
 		public final Argument get(int index, boolean required)
 		{
 			int i = 0;
@@ -1194,9 +1810,56 @@ public abstract class Command implements CommandExecutor
 		 * @return This, for chaining
 		 */
 		public SyntaxBuilder add(String arg, String explanation, boolean required)
+		{
+			return add(arg, explanation, required, (Completer) null);
+		}
+
+		/**
+		 * Adds an argument to the current Syntax
+		 * 
+		 * @param arg Argument name
+		 * @param explanation Short description for the argument
+		 * @param required Whether or not the argument is required
+		 * @param completer Tab completer for the argument, can be null
+		 * @return This, for chaining
+		 */
+		public SyntaxBuilder add(String arg, String explanation, boolean required, Completer completer)
+		{
+			Syntax current = syntaxes.get(syntaxes.size() - 1);
+			Argument argument = new Argument(arg, explanation, required);
+			argument.setCompleter(completer);
+			current.add(argument);
+			return this;
+		}
+
+		/**
+		 * Sets the tab completer of the last argument added to the current
+		 * Syntax
+		 * 
+		 * @param completer Tab completer
+		 * @return This, for chaining
+		 * @see Completers
+		 */
+		public SyntaxBuilder completer(Completer completer)
+		{
+			Syntax current = syntaxes.get(syntaxes.size() - 1);
+			Validate.isTrue(! current.isEmpty(), "no argument to complete!");
+			current.get(current.size() - 1).setCompleter(completer);
+			return this;
+		}
+
+		/**
+		 * Sets the type of the last argument added to the current Syntax
+		 * 
+		 * @param type Argument type
+		 * @return This, for chaining
+		 * @see ArgType
+		 */
+		public SyntaxBuilder type(ArgType<?> type)
 		{
 			Syntax current = syntaxes.get(syntaxes.size() - 1);
-			current.add(new Argument(arg, explanation, required));
+			Validate.isTrue(! current.isEmpty(), "no argument to type!");
+			current.get(current.size() - 1).setType(type);
 			return this;
 		}
 
@@ -0,0 +1,138 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import net.dmulloy2.commands.Command.Syntax;
+
+/**
+ * Holds the state of a single execution of a {@link Command}. Each execution
+ * gets its own context, so a command can be executed by multiple senders at
+ * once without them overwriting each other's arguments.
+ *
+ * @author dmulloy2
+ * @see ContextCommand
+ */
+
+@Getter
+public class CommandContext
+{
+	private final Command command;
+	private final CommandSender sender;
+	private final Player player;
+	private final String[] args;
+
+	@Setter(AccessLevel.PACKAGE)
+	private Syntax syntax;
+
+	// Parsed values of typed arguments, by index
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.PACKAGE)
+	private Object[] values;
+
+	public CommandContext(Command command, CommandSender sender, String[] args)
+	{
+		Validate.notNull(command, "command cannot be null!");
+		Validate.notNull(sender, "sender cannot be null!");
+		Validate.notNull(args, "args cannot be null!");
+
+		this.command = command;
+		this.sender = sender;
+		this.player = sender instanceof Player ? (Player) sender : null;
+		this.args = args;
+	}
+
+	/**
+	 * Whether or not the sender is a {@link Player}.
+	 *
+	 * @return True if they are, false if not
+	 */
+	public boolean isPlayer()
+	{
+		return player != null;
+	}
+
+	/**
+	 * Gets the number of arguments.
+	 *
+	 * @return The number of arguments
+	 */
+	public int getArgCount()
+	{
+		return args.length;
+	}
+
+	/**
+	 * Gets an argument by index.
+	 *
+	 * @param index Argument index
+	 * @return The argument, or null if there are not enough arguments
+	 */
+	public String getArg(int index)
+	{
+		return index < args.length ? args[index] : null;
+	}
+
+	/**
+	 * Gets the parsed value of a typed argument.
+	 *
+	 * @param index Argument index
+	 * @return The value, or null if the argument was not given or is not typed
+	 * @see ArgType
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getValue(int index)
+	{
+		return values != null && index < values.length ? (T) values[index] : null;
+	}
+
+	/**
+	 * Gets the parsed value of a typed argument by name.
+	 *
+	 * @param name Argument name
+	 * @return The value, or null if the argument was not given or is not typed
+	 * @see ArgType
+	 */
+	public <T> T getValue(String name)
+	{
+		Validate.notNull(name, "name cannot be null!");
+
+		if (syntax != null)
+		{
+			for (int i = 0; i < syntax.size(); i++)
+			{
+				if (syntax.get(i).getArgument().equalsIgnoreCase(name))
+					return getValue(i);
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CommandContext{command=" + command.getName() + ", sender=" + sender.getName() + ", args=" + String.join(" ", args) + "}";
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A case-insensitive index of commands by name and alias. The index is built
+ * from a backing list and rebuilt whenever commands are added to or removed
+ * from that list, or when the list is replaced. If two commands share a name or alias, the one that comes
+ * first in the list wins.
+ * <p>
+ * Names and aliases are read when the index is built, so they should be set
+ * before a command is registered. {@link #rebuild()} can be used if they are
+ * changed afterwards.
+ *
+ * @author dmulloy2
+ */
+
+public final class CommandIndex<T extends Command>
+{
+	private final Supplier<? extends List<? extends T>> commands;
+
+	private volatile Map<String, T> index;
+	private volatile List<? extends T> indexed;
+	private volatile int size;
+
+	/**
+	 * Creates a new index backed by a given list of commands.
+	 *
+	 * @param commands Commands to index
+	 */
+	public CommandIndex(List<? extends T> commands)
+	{
+		this(() -> commands);
+		Validate.notNull(commands, "commands cannot be null!");
+	}
+
+	/**
+	 * Creates a new index backed by whichever list of commands a supplier
+	 * returns, such as the current value of a field.
+	 *
+	 * @param commands Supplies the commands to index
+	 */
+	public CommandIndex(Supplier<? extends List<? extends T>> commands)
+	{
+		Validate.notNull(commands, "commands cannot be null!");
+
+		this.commands = commands;
+		this.index = Collections.emptyMap();
+		this.size = 0;
+	}
+
+	/**
+	 * Gets a command by name or alias, ignoring case.
+	 *
+	 * @param name Name or alias
+	 * @return The command, or null if not found
+	 */
+	public T get(String name)
+	{
+		Validate.notNull(name, "name cannot be null!");
+
+		List<? extends T> commands = this.commands.get();
+		if (commands != indexed || commands.size() != size)
+			rebuild();
+
+		return index.get(name.toLowerCase());
+	}
+
+	/**
+	 * Rebuilds this index from the backing list.
+	 */
+	public synchronized void rebuild()
+	{
+		List<? extends T> commands = this.commands.get();
+		Map<String, T> index = new HashMap<>();
+		for (T command : commands)
+		{
+			String name = command.getName();
+			if (name != null)
+				index.putIfAbsent(name.toLowerCase(), command);
+
+			for (String alias : command.getAliases())
+				index.putIfAbsent(alias.toLowerCase(), command);
+		}
+
+		this.index = index;
+		this.indexed = commands;
+		this.size = commands.size();
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.dmulloy2.exception.CommandException.Reason;
+
+/**
+ * Execution metrics for a command. Invocations are timed in nanoseconds and
+ * recorded in a log-linear histogram, and percentiles are reported as the
+ * middle of their bucket, so they are accurate to within about 12.5%. Recording never blocks and is safe from any thread.
+ *
+ * @author dmulloy2
+ */
+
+public final class CommandMetrics
+{
+	// Each power of two of microseconds is split into this many buckets
+	private static final int SUB_BUCKETS = 4;
+	private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final Map<Reason, LongAdder> failures = new EnumMap<>(Reason.class);
+
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	public CommandMetrics()
+	{
+		for (Reason reason : Reason.values())
+			failures.put(reason, new LongAdder());
+	}
+
+	/**
+	 * Records an invocation that took a given amount of time.
+	 *
+	 * @param nanos Time in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		if (nanos < 0)
+			nanos = 0;
+
+		invocations.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+	}
+
+	/**
+	 * Records an invocation that ended with a {@link net.dmulloy2.exception.CommandException}.
+	 *
+	 * @param reason Reason of the exception
+	 */
+	public void recordFailure(Reason reason)
+	{
+		failures.get(reason).increment();
+	}
+
+	/**
+	 * Records an invocation that ended with an unexpected exception.
+	 */
+	public void recordError()
+	{
+		errors.increment();
+	}
+
+	/**
+	 * Gets the number of recorded invocations.
+	 *
+	 * @return The number of invocations
+	 */
+	public long getInvocations()
+	{
+		return invocations.sum();
+	}
+
+	/**
+	 * Gets the number of invocations that failed for a given reason.
+	 *
+	 * @param reason Reason to get failures for
+	 * @return The number of failures
+	 */
+	public long getFailures(Reason reason)
+	{
+		return failures.get(reason).sum();
+	}
+
+	/**
+	 * Gets the number of invocations that threw an unexpected exception.
+	 *
+	 * @return The number of errors
+	 */
+	public long getErrors()
+	{
+		return errors.sum();
+	}
+
+	/**
+	 * Gets the average invocation time.
+	 *
+	 * @return The average time in milliseconds
+	 */
+	public double getAverage()
+	{
+		long invocations = this.invocations.sum();
+		return invocations == 0 ? 0.0D : totalNanos.sum() / (invocations * 1000000.0D);
+	}
+
+	/**
+	 * Gets the longest invocation time.
+	 *
+	 * @return The longest time in milliseconds
+	 */
+	public double getMax()
+	{
+		return maxNanos.get() / 1000000.0D;
+	}
+
+	/**
+	 * Gets an approximate percentile of the invocation times.
+	 *
+	 * @param percentile Percentile between 0 and 1, such as 0.99
+	 * @return The time in milliseconds, or 0 if nothing has been recorded
+	 */
+	public double getPercentile(double percentile)
+	{
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+
+		for (int i = 0; i < BUCKETS; i++)
+			total += counts[i] = histogram.get(i);
+
+		if (total == 0)
+			return 0.0D;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile * total));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(midpoint(i) / 1000.0D, getMax());
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * Clears all recorded metrics.
+	 */
+	public void reset()
+	{
+		invocations.reset();
+		errors.reset();
+		for (LongAdder adder : failures.values())
+			adder.reset();
+
+		totalNanos.reset();
+		maxNanos.reset();
+		for (int i = 0; i < BUCKETS; i++)
+			histogram.set(i, 0L);
+	}
+
+	// ---- Histogram buckets
+
+	private static int bucket(long micros)
+	{
+		if (micros < SUB_BUCKETS)
+			return (int) micros;
+
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int sub = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+		return (exponent - 1) * SUB_BUCKETS + sub;
+	}
+
+	// Middle of a bucket, in microseconds. A bucket is at most a quarter as
+	// wide as its lower bound, so this is within 12.5% of anything in it
+	private static double midpoint(int bucket)
+	{
+		if (bucket < SUB_BUCKETS)
+			return bucket + 0.5D;
+
+		int exponent = bucket / SUB_BUCKETS + 1;
+		int sub = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + sub + 0.5D) * (1L << (exponent - 2));
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("CommandMetrics{invocations=%d, errors=%d, average=%.2fms, p50=%.2fms, p99=%.2fms, max=%.2fms}",
+				getInvocations(), getErrors(), getAverage(), getPercentile(0.5D), getPercentile(0.99D), getMax());
+	}
+}
@@ -18,8 +18,13 @@
 package net.dmulloy2.commands;
 
 import net.dmulloy2.types.IPermission;
-import net.dmulloy2.util.FormatUtil;
+import net.dmulloy2.types.MessageTemplate;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -40,15 +45,74 @@ public class CommandProps
 	private String helpFooter = "{b}Hover to see command information. Click to insert into chat.";
 	private IPermission reloadPerm = null;
 
+	// Commands that take at least this many milliseconds are logged, 0 to disable
+	private long slowCommandThreshold = 50L;
+
+	// Templates with the {b}, {a}, and {h} colors already filled in
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final LoadingCache<String, MessageTemplate> templates = CacheBuilder.newBuilder()
+			.maximumSize(256)
+			.build(CacheLoader.from(this::compile));
+
+	// Incremented whenever something that affects help pages changes
+	@Setter(AccessLevel.NONE)
+	private volatile int modCount;
+
 	public CommandProps() { }
 
-	public String format(String string, Object... args)
+	public CommandProps setBaseColor(String baseColor)
+	{
+		this.baseColor = baseColor;
+		changed();
+		return this;
+	}
+
+	public CommandProps setAccentColor(String accentColor)
+	{
+		this.accentColor = accentColor;
+		changed();
+		return this;
+	}
+
+	public CommandProps setHeaderColor(String headerColor)
+	{
+		this.headerColor = headerColor;
+		changed();
+		return this;
+	}
+
+	public CommandProps setHelpHeader(String helpHeader)
 	{
-		return FormatUtil.format(string
+		this.helpHeader = helpHeader;
+		changed();
+		return this;
+	}
+
+	public CommandProps setHelpFooter(String helpFooter)
+	{
+		this.helpFooter = helpFooter;
+		changed();
+		return this;
+	}
+
+	private void changed()
+	{
+		templates.invalidateAll();
+		modCount++;
+	}
+
+	private MessageTemplate compile(String string)
+	{
+		return MessageTemplate.compile(string
 				.replace("{b}", baseColor)
 				.replace("{a}", accentColor)
-				.replace("{h}", headerColor),
-				args);
+				.replace("{h}", headerColor));
+	}
+
+	public String format(String string, Object... args)
+	{
+		return templates.getUnchecked(string).format(args);
 	}
 
 	public String formatErr(String string, Object... args)
@@ -0,0 +1,42 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Completes an {@link Command.Argument} when a sender presses tab.
+ *
+ * @author dmulloy2
+ * @see Completers
+ */
+
+@FunctionalInterface
+public interface Completer
+{
+	/**
+	 * Gets the possible completions of a partially typed argument.
+	 *
+	 * @param sender Sender who is completing the argument
+	 * @param prefix What has been typed so far, which may be empty
+	 * @return The completions, which may be empty
+	 */
+	List<String> complete(CommandSender sender, String prefix);
+}
@@ -0,0 +1,266 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.google.common.base.Suppliers;
+
+import net.dmulloy2.handlers.LogHandler;
+import net.dmulloy2.types.EnchantmentType;
+import net.dmulloy2.types.PotionType;
+import net.dmulloy2.types.PrefixIndex;
+import net.dmulloy2.util.Util;
+
+/**
+ * Common {@link Completer}s. Completions are looked up in a sorted
+ * {@link PrefixIndex}, so they stay fast with lots of values or players.
+ *
+ * @author dmulloy2
+ */
+
+public class Completers
+{
+	private Completers() { }
+
+	private static final Completer NONE = (sender, prefix) -> new ArrayList<>();
+
+	private static final Supplier<Completer> MATERIALS = Suppliers.memoize(() ->
+	{
+		List<String> names = new ArrayList<>();
+		for (Material material : Material.values())
+			names.add(material.name().toLowerCase());
+		return of(names);
+	});
+
+	private static final Supplier<Completer> ENCHANTMENTS = Suppliers.memoize(() ->
+	{
+		List<String> names = new ArrayList<>();
+		for (EnchantmentType type : EnchantmentType.values())
+		{
+			names.add(type.name().toLowerCase());
+			names.addAll(Arrays.asList(type.getAliases()));
+		}
+		return of(names);
+	});
+
+	private static final Supplier<Completer> POTIONS = Suppliers.memoize(() ->
+	{
+		List<String> names = new ArrayList<>();
+		for (PotionType type : PotionType.values())
+		{
+			names.add(type.name().toLowerCase());
+			names.addAll(Arrays.asList(type.getAliases()));
+		}
+		return of(names);
+	});
+
+	private static final PlayerCompleter PLAYERS = new PlayerCompleter();
+
+	/**
+	 * Gets a completer that never completes anything.
+	 *
+	 * @return The completer
+	 */
+	public static Completer none()
+	{
+		return NONE;
+	}
+
+	/**
+	 * Gets a completer for a fixed set of values.
+	 *
+	 * @param values Possible values
+	 * @return The completer
+	 */
+	public static Completer of(String... values)
+	{
+		Validate.notNull(values, "values cannot be null!");
+		return of(Arrays.asList(values));
+	}
+
+	/**
+	 * Gets a completer for a fixed set of values.
+	 *
+	 * @param values Possible values
+	 * @return The completer
+	 */
+	public static Completer of(Collection<String> values)
+	{
+		PrefixIndex<String> index = PrefixIndex.of(values);
+		return (sender, prefix) -> index.find(prefix);
+	}
+
+	/**
+	 * Gets a completer for the constants of an enum, in lower case.
+	 *
+	 * @param type Enum class
+	 * @return The completer
+	 */
+	public static <E extends Enum<E>> Completer ofEnum(Class<E> type)
+	{
+		Validate.notNull(type, "type cannot be null!");
+
+		List<String> names = new ArrayList<>();
+		for (E constant : type.getEnumConstants())
+			names.add(constant.name().toLowerCase());
+		return of(names);
+	}
+
+	/**
+	 * Gets a completer for the whole numbers in a range. Ranges with more than
+	 * 1000 numbers are not completed.
+	 *
+	 * @param min Smallest number, inclusive
+	 * @param max Largest number, inclusive
+	 * @return The completer
+	 */
+	public static Completer range(int min, int max)
+	{
+		Validate.isTrue(min <= max, "min cannot be greater than max!");
+		if ((long) max - min >= 1000)
+			return NONE;
+
+		List<String> numbers = new ArrayList<>();
+		for (int i = min; i <= max; i++)
+			numbers.add(Integer.toString(i));
+		return of(numbers);
+	}
+
+	/**
+	 * Gets a completer for the names of {@link Material}s.
+	 *
+	 * @return The completer
+	 */
+	public static Completer materials()
+	{
+		return MATERIALS.get();
+	}
+
+	/**
+	 * Gets a completer for the names and aliases of {@link EnchantmentType}s.
+	 *
+	 * @return The completer
+	 */
+	public static Completer enchantments()
+	{
+		return ENCHANTMENTS.get();
+	}
+
+	/**
+	 * Gets a completer for the names and aliases of {@link PotionType}s.
+	 *
+	 * @return The completer
+	 */
+	public static Completer potions()
+	{
+		return POTIONS.get();
+	}
+
+	/**
+	 * Gets a completer for the names of online players. Players who are
+	 * hidden from the sender are not completed.
+	 *
+	 * @return The completer
+	 */
+	public static Completer players()
+	{
+		return PLAYERS;
+	}
+
+	private static class PlayerCompleter implements Completer, Listener
+	{
+		private volatile PrefixIndex<Player> index;
+		private volatile boolean listening;
+
+		@Override
+		public List<String> complete(CommandSender sender, String prefix)
+		{
+			Player viewer = sender instanceof Player ? (Player) sender : null;
+			List<String> ret = new ArrayList<>();
+
+			for (Player player : getIndex().find(prefix))
+			{
+				if (player.isOnline() && (viewer == null || viewer.canSee(player)))
+					ret.add(player.getName());
+			}
+
+			return ret;
+		}
+
+		private PrefixIndex<Player> getIndex()
+		{
+			if (! listening)
+				registerListener();
+
+			// Without the listener, rebuild when the number of players changes
+			PrefixIndex<Player> index = this.index;
+			Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+			if (index == null || index.size() != online.size())
+				this.index = index = new PrefixIndex<>(new ArrayList<>(online), Player::getName);
+			return index;
+		}
+
+		private synchronized void registerListener()
+		{
+			if (listening)
+				return;
+
+			listening = true;
+
+			try
+			{
+				Plugin plugin = JavaPlugin.getProvidingPlugin(Completers.class);
+				plugin.getServer().getPluginManager().registerEvents(this, plugin);
+			}
+			catch (Throwable ex)
+			{
+				LogHandler.globalDebug(Util.getUsefulStack(ex, "registering player completion listener"));
+			}
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onPlayerJoin(PlayerJoinEvent event)
+		{
+			index = null;
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onPlayerQuit(PlayerQuitEvent event)
+		{
+			index = null;
+		}
+	}
+}
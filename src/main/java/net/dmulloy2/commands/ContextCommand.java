@@ -0,0 +1,51 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.commands;
+
+import net.dmulloy2.SwornPlugin;
+
+/**
+ * Base class for commands that get their sender and arguments from a
+ * {@link CommandContext} instead of the {@link Command} fields. These can be
+ * executed from multiple threads at once.
+ * @author dmulloy2
+ */
+public abstract class ContextCommand extends Command
+{
+	public ContextCommand(SwornPlugin plugin)
+	{
+		super(plugin);
+	}
+
+	/**
+	 * Performs this command after permission and argument length checks.
+	 * Implementations should only use the context and the helper methods,
+	 * not the {@link #sender}, {@link #player}, {@link #args}, and
+	 * {@link #syntax} fields, which are not set.
+	 *
+	 * @param context Execution context
+	 */
+	@Override
+	public abstract void perform(CommandContext context);
+
+	@Override
+	public final void perform()
+	{
+		perform(getContext());
+	}
+}
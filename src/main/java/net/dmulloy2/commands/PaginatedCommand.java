@@ -19,8 +19,10 @@ package net.dmulloy2.commands;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalInt;
 
 import net.dmulloy2.SwornPlugin;
+import net.dmulloy2.util.NumberUtil;
 
 /**
  * Represents a command that has pagination.
@@ -44,18 +46,17 @@ public abstract class PaginatedCommand extends Command
 		int index = 1;
 		if (args.length > pageArgIndex)
 		{
-			try
+			OptionalInt page = NumberUtil.tryParseInt(args[pageArgIndex]);
+			if (! page.isPresent())
 			{
-				index = Integer.parseInt(args[pageArgIndex]);
-				if (index < 1 || index > getPageCount())
-				{
-					err("&4There is no page with the index &c{0}&4.", index);
-					return;
-				}
+				err("&c{0} &4is not a number.", args[0]);
+				return;
 			}
-			catch (NumberFormatException ex)
+
+			index = page.getAsInt();
+			if (index < 1 || index > getPageCount())
 			{
-				err("&c{0} &4is not a number.", args[0]);
+				err("&4There is no page with the index &c{0}&4.", index);
 				return;
 			}
 		}
@@ -0,0 +1,39 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.config;
+
+/**
+ * Listens for changes to configuration keys on reload.
+ * 
+ * @author dmulloy2
+ * @see ConfigParser#addListener(Object, String, ConfigListener)
+ */
+
+@FunctionalInterface
+public interface ConfigListener
+{
+	/**
+	 * Called once a key's value has changed and every new value has been
+	 * set. Configurations applied by a reload are applied on the main thread.
+	 * 
+	 * @param path Key that changed
+	 * @param oldValue The field's value before the change
+	 * @param newValue The field's value after the change
+	 */
+	void onChange(String path, Object oldValue, Object newValue);
+}
@@ -17,11 +17,19 @@
  */
 package net.dmulloy2.config;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -34,11 +42,19 @@ import net.dmulloy2.util.MaterialUtil;
 import net.dmulloy2.util.NumberUtil;
 import net.dmulloy2.util.Util;
 
+import org.apache.commons.lang.Validate;
 import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 /**
- * Parses a configuration class.
+ * Parses a configuration class. The fields, keys, and value options of each
+ * class are only looked up the first time it is parsed, and on later parses
+ * only keys that changed are converted again.
  * 
  * @author dmulloy2
  */
@@ -79,187 +95,558 @@ public final class ConfigParser
 		parse(plugin, config, clazz, null);
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private static void parse(SwornPlugin plugin, FileConfiguration config, Class<?> clazz, Object object)
 	{
-		for (Field field : clazz.getDeclaredFields())
+		prepare(plugin, config, clazz, object).apply();
+	}
+
+	/**
+	 * Reads and converts the values of an instance-based configuration
+	 * without setting them. This can be done off of the main thread, since the
+	 * fields are only set once the result is {@link PreparedConfig#apply()
+	 * applied}.
+	 * <p>
+	 * Only keys whose values changed since the configuration was last applied
+	 * are converted again. Fields for unchanged keys are left alone.
+	 * 
+	 * @param plugin Plugin instance
+	 * @param config Configuration to read from
+	 * @param object Object to prepare
+	 * @return The prepared values
+	 */
+	public static PreparedConfig prepare(SwornPlugin plugin, FileConfiguration config, Object object)
+	{
+		Validate.notNull(object, "object cannot be null!");
+		return prepare(plugin, config, object.getClass(), object);
+	}
+
+	/**
+	 * Reads and converts the values of a static-based configuration without
+	 * setting them.
+	 * 
+	 * @param plugin Plugin instance
+	 * @param config Configuration to read from
+	 * @param clazz Configuration class
+	 * @return The prepared values
+	 * @see #prepare(SwornPlugin, FileConfiguration, Object)
+	 */
+	public static PreparedConfig prepare(SwornPlugin plugin, FileConfiguration config, Class<?> clazz)
+	{
+		Validate.notNull(clazz, "clazz cannot be null!");
+		return prepare(plugin, config, clazz, null);
+	}
+
+	private static PreparedConfig prepare(SwornPlugin plugin, FileConfiguration config, Class<?> clazz, Object object)
+	{
+		Validate.notNull(plugin, "plugin cannot be null!");
+		Validate.notNull(config, "config cannot be null!");
+
+		long start = System.nanoTime();
+
+		State state = states.getUnchecked(object != null ? object : clazz);
+		Object[] previous = state.raw;
+
+		List<Binding> bindings = plans.get(clazz).bindings;
+		Object[] raw = new Object[bindings.size()];
+		Object[] values = new Object[bindings.size()];
+
+		for (int i = 0; i < values.length; i++)
+		{
+			Binding binding = bindings.get(i);
+			Object value = config.get(binding.path);
+			raw[i] = snapshot(value);
+
+			if (previous != null && Objects.equals(previous[i], raw[i]))
+				values[i] = UNCHANGED;
+			else
+				values[i] = binding.resolve(plugin, value, object);
+		}
+
+		return new PreparedConfig(plugin, state, bindings, object, raw, values, System.nanoTime() - start);
+	}
+
+	// Copies a raw value so it can be compared against the next load
+	private static Object snapshot(Object value)
+	{
+		if (value instanceof ConfigurationSection)
+		{
+			Map<String, Object> values = new HashMap<>();
+			for (Entry<String, Object> entry : ((ConfigurationSection) value).getValues(true).entrySet())
+			{
+				if (! (entry.getValue() instanceof ConfigurationSection))
+					values.put(entry.getKey(), entry.getValue());
+			}
+
+			return values;
+		}
+
+		if (value instanceof List)
+			return new ArrayList<>((List<?>) value);
+
+		return value;
+	}
+
+	/**
+	 * Configuration values that have been read and converted, but not yet set.
+	 * 
+	 * @author dmulloy2
+	 * @see ConfigParser#prepare(SwornPlugin, FileConfiguration, Object)
+	 */
+	public static final class PreparedConfig
+	{
+		private final SwornPlugin plugin;
+		private final State state;
+		private final List<Binding> bindings;
+		private final Object object;
+		private final Object[] raw;
+		private final Object[] values;
+		private final long nanos;
+
+		private PreparedConfig(SwornPlugin plugin, State state, List<Binding> bindings, Object object, Object[] raw, Object[] values,
+				long nanos)
+		{
+			this.plugin = plugin;
+			this.state = state;
+			this.bindings = bindings;
+			this.object = object;
+			this.raw = raw;
+			this.values = values;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Sets every prepared value. This should be called on the main thread,
+		 * so the values change between ticks. Setting the fields is cheap, since
+		 * all of the parsing has already been done.
+		 * <p>
+		 * If the configuration was applied before, listeners are notified of
+		 * each key that changed once every value has been set.
+		 * 
+		 * @see ConfigParser#addListener(Object, String, ConfigListener)
+		 */
+		public void apply()
+		{
+			boolean reload = state.raw != null;
+			List<Runnable> changes = new ArrayList<>();
+
+			for (int i = 0; i < values.length; i++)
+			{
+				// Removed keys and failed conversions leave the field alone
+				if (values[i] == UNCHANGED || values[i] == UNSET)
+					continue;
+
+				Binding binding = bindings.get(i);
+				Object oldValue = reload ? binding.get(plugin, object) : null;
+
+				binding.set(plugin, object, values[i]);
+
+				if (reload)
+				{
+					Object newValue = binding.get(plugin, object);
+					if (! Objects.equals(oldValue, newValue))
+						changes.add(() -> state.fireChange(plugin, binding.path, oldValue, newValue));
+				}
+			}
+
+			state.raw = raw;
+
+			for (Runnable change : changes)
+				change.run();
+		}
+
+		/**
+		 * Gets the keys whose values changed since the configuration was last
+		 * applied. Every key is considered changed the first time.
+		 * 
+		 * @return The changed keys
+		 */
+		public List<String> getChangedKeys()
+		{
+			List<String> keys = new ArrayList<>();
+			for (int i = 0; i < values.length; i++)
+			{
+				if (values[i] != UNCHANGED)
+					keys.add(bindings.get(i).path);
+			}
+
+			return keys;
+		}
+
+		/**
+		 * Gets how long it took to read and convert the values.
+		 * 
+		 * @return The time in nanoseconds
+		 */
+		public long getPrepareTime()
+		{
+			return nanos;
+		}
+	}
+
+	// ---- Change Tracking
+
+	// Tracked per class for static configurations and per object otherwise
+	private static final LoadingCache<Object, State> states = CacheBuilder.newBuilder()
+			.weakKeys()
+			.build(CacheLoader.from(target -> new State()));
+
+	/**
+	 * Adds a listener that is notified when a key changes on reload. Keys that
+	 * did not change in the configuration file are not converted again, so
+	 * listeners can be used to only rebuild what depends on the changed keys.
+	 * 
+	 * @param target Configuration class for static-based configurations, or
+	 *        the object for instance-based configurations
+	 * @param path Key to listen to, or null for every key
+	 * @param listener Listener to add
+	 */
+	public static void addListener(Object target, String path, ConfigListener listener)
+	{
+		Validate.notNull(target, "target cannot be null!");
+		Validate.notNull(listener, "listener cannot be null!");
+
+		states.getUnchecked(target).listeners.add(new Listener(path, listener));
+	}
+
+	/**
+	 * Removes a listener from every key it was added to.
+	 * 
+	 * @param target Configuration class or object
+	 * @param listener Listener to remove
+	 */
+	public static void removeListener(Object target, ConfigListener listener)
+	{
+		Validate.notNull(target, "target cannot be null!");
+		Validate.notNull(listener, "listener cannot be null!");
+
+		states.getUnchecked(target).listeners.removeIf(registered -> registered.listener == listener);
+	}
+
+	private static final class State
+	{
+		// Raw values from the last time the configuration was applied
+		private volatile Object[] raw;
+
+		private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+		private void fireChange(SwornPlugin plugin, String path, Object oldValue, Object newValue)
+		{
+			for (Listener registered : listeners)
+			{
+				if (registered.path != null && ! registered.path.equals(path))
+					continue;
+
+				try
+				{
+					registered.listener.onChange(path, oldValue, newValue);
+				}
+				catch (Throwable ex)
+				{
+					plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "notifying listeners of changes to {0}", path));
+				}
+			}
+		}
+	}
+
+	private static final class Listener
+	{
+		private final String path;
+		private final ConfigListener listener;
+
+		private Listener(String path, ConfigListener listener)
+		{
+			this.path = path;
+			this.listener = listener;
+		}
+	}
+
+	// ---- Binding Plans
+
+	// Binding plans are built once per class, so reloads don't need reflection
+	private static final ClassValue<BindingPlan> plans = new ClassValue<BindingPlan>()
+	{
+		@Override
+		protected BindingPlan computeValue(Class<?> type)
+		{
+			return new BindingPlan(type);
+		}
+	};
+
+	// Marks values that were missing or could not be converted
+	private static final Object UNSET = new Object();
+
+	// Marks values that have not changed since the last load
+	private static final Object UNCHANGED = new Object();
+
+	private static final MethodType CONVERT_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final class BindingPlan
+	{
+		private final List<Binding> bindings = new ArrayList<>();
+
+		private BindingPlan(Class<?> clazz)
+		{
+			for (Field field : clazz.getDeclaredFields())
+			{
+				Key key = field.getAnnotation(Key.class);
+				if (key != null)
+					bindings.add(new Binding(field, key.value()));
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface Step
+	{
+		Object apply(SwornPlugin plugin, Object def, Object value) throws Throwable;
+	}
+
+	private static final class Binding
+	{
+		private final Field field;
+		private final String path;
+		private final boolean isStatic;
+
+		private MethodHandle getter;
+		private MethodHandle setter;
+
+		private final List<Step> steps = new ArrayList<>();
+		private Throwable error;
+
+		private Binding(Field field, String path)
 		{
-			if (! field.isAccessible())
+			this.field = field;
+			this.path = path;
+			this.isStatic = Modifier.isStatic(field.getModifiers());
+
+			try
+			{
 				field.setAccessible(true);
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
 
-			Object def = null;
+				this.getter = lookup.unreflectGetter(field);
+				this.getter = isStatic ? MethodHandles.dropArguments(getter, 0, Object.class) : getter;
+				this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
 
+				// Final fields fall back to reflection, which reports the problem
+				if (! Modifier.isFinal(field.getModifiers()))
+				{
+					this.setter = lookup.unreflectSetter(field);
+					this.setter = isStatic ? MethodHandles.dropArguments(setter, 0, Object.class) : setter;
+					this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				}
+			}
+			catch (Throwable ex)
+			{
+				this.error = ex;
+			}
+
+			ValueOptions options = field.getAnnotation(ValueOptions.class);
+			if (options != null)
+			{
+				for (ValueOption option : options.value())
+					steps.add(step(option, options.allowNull()));
+
+				for (Class<?> custom : options.custom())
+				{
+					try
+					{
+						Method method = custom.getMethod("convert", Object.class);
+						MethodHandle convert = MethodHandles.publicLookup().unreflect(method).asType(CONVERT_TYPE);
+						steps.add((plugin, def, value) -> convert(plugin, custom, convert, value));
+					}
+					catch (ReflectiveOperationException | RuntimeException ex)
+					{
+						this.error = ex;
+					}
+				}
+			}
+		}
+
+		private Object convert(SwornPlugin plugin, Class<?> custom, MethodHandle convert, Object value)
+		{
 			try
 			{
-				def = field.get(object);
+				return (Object) convert.invokeExact(value);
+			}
+			catch (Throwable ex)
+			{
+				plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "converting {0} using {1}", path, custom.getName()));
+				return value;
+			}
+		}
+
+		// Converts the value, returning UNSET if the field should be left alone
+		private Object resolve(SwornPlugin plugin, Object value, Object object)
+		{
+			if (error != null)
+			{
+				plugin.getLogHandler().log(Level.SEVERE, Util.getUsefulStack(error, "loading value from {0}", path));
+				return UNSET;
+			}
+
+			if (value == null)
+				return UNSET;
+
+			try
+			{
+
+				Object def = (Object) getter.invokeExact(object);
+				for (Step step : steps)
+					value = step.apply(plugin, def, value);
+
+				return value;
+			}
+			catch (ClassCastException ex)
+			{
+				wrongType(plugin, value, ex);
+			}
+			catch (Throwable ex)
+			{
+				plugin.getLogHandler().log(Level.SEVERE, Util.getUsefulStack(ex, "loading value from {0}", path));
+			}
+
+			return UNSET;
+		}
+
+		private Object get(SwornPlugin plugin, Object object)
+		{
+			if (error != null)
+				return null;
+
+			try
+			{
+				return (Object) getter.invokeExact(object);
 			}
 			catch (Throwable ex)
 			{
 				plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "accessing field {0}", field));
+				return null;
+			}
+		}
+
+		private void set(SwornPlugin plugin, Object object, Object value)
+		{
+			try
+			{
+				if (setter != null)
+					setter.invokeExact(object, value);
+				else
+					field.set(isStatic ? null : object, value);
+			}
+			catch (ClassCastException | IllegalArgumentException ex)
+			{
+				wrongType(plugin, value, ex);
+			}
+			catch (Throwable ex)
+			{
+				plugin.getLogHandler().log(Level.SEVERE, Util.getUsefulStack(ex, "loading value from {0}", path));
 			}
+		}
 
-			Key key = field.getAnnotation(Key.class);
-			if (key != null)
+		private void wrongType(SwornPlugin plugin, Object value, Throwable ex)
+		{
+			plugin.getLogHandler().log(Level.WARNING, "\"{0}\" is the wrong type: expected {1}, but got {2}", path, field.getType(), value != null ? value.getClass().getName() : null);
+			plugin.getLogHandler().debug(Level.WARNING, Util.getUsefulStack(ex, "setting {0} to {1}", field, value));
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private Step step(ValueOption option, boolean allowNull)
+		{
+			switch (option)
 			{
-				String path = key.value();
-				Object value = null;
+				case FORMAT:
+					return (plugin, def, value) -> FormatUtil.format(value.toString());
+				case LIST_LOWER_CASE:
+					return (plugin, def, value) ->
+					{
+						List<String> original = (List<String>) value;
+						List<String> lower = new ArrayList<>(original.size());
+						for (String string : original)
+							lower.add(string.toLowerCase());
+						return lower;
+					};
+				case LIST_UPPER_CASE:
+					return (plugin, def, value) ->
+					{
+						List<String> original = (List<String>) value;
+						List<String> upper = new ArrayList<>(original.size());
+						for (String string : original)
+							upper.add(string.toUpperCase());
+						return upper;
+					};
+				case LOWER_CASE:
+					return (plugin, def, value) -> value.toString().toLowerCase();
+				case MINUTE_TO_MILLIS:
+					return (plugin, def, value) -> TimeUnit.MINUTES.toMillis(NumberUtil.toLong(value));
+				case MINUTE_TO_TICKS:
+					return (plugin, def, value) -> TimeUnit.MINUTES.toSeconds(NumberUtil.toLong(value)) * TICKS_PER_SECOND;
+				case PARSE_ENUM:
+					Class<? extends Enum> type = (Class<? extends Enum>) field.getType();
+					return (plugin, def, value) -> Enum.valueOf(type, value.toString().toUpperCase().replace(" ", "_").replace(".", "_"));
+				// Item parsing handles null values on its own
+				case PARSE_ITEM:
+					return (plugin, def, value) -> ItemUtil.readItem(value.toString(), plugin);
+				case PARSE_ITEMS:
+					return (plugin, def, value) -> ItemUtil.readItems((List<String>) value, plugin, path);
+				// Check for nulls with materials
+				case PARSE_MATERIAL:
+					return (plugin, def, value) ->
+					{
+						String input = value.toString();
+						if (NumberUtil.isInt(input))
+							plugin.getLogHandler().log(Level.WARNING, "Use of type IDs is discouraged. Please change \"{0}\" in your config", path);
 
-				try
-				{
-					value = config.get(path);
-					if (value != null)
+						Material material = MaterialUtil.getMaterial(input);
+						if (material == null && ! allowNull)
+						{
+							plugin.getLogHandler().log(Level.WARNING, "Failed to read material \"{0}\" from {1}. Defaulting to {2}", input, path, def);
+							return def;
+						}
+
+						return material;
+					};
+				case PARSE_MATERIALS:
+					return (plugin, def, value) ->
 					{
-						ValueOptions options = field.getAnnotation(ValueOptions.class);
-						if (options != null)
+						List<Material> materials = new ArrayList<>();
+						for (Object element : (List<Object>) value)
 						{
-							for (ValueOption option : options.value())
+							String string = element.toString();
+							if (NumberUtil.isInt(string))
+								plugin.getLogHandler().log(Level.WARNING, "Use of type IDs is discouraged. Please change \"{0}\" in your config", path);
+
+							Material material = MaterialUtil.getMaterial(string);
+							if (material == null && ! allowNull)
 							{
-								switch (option)
-								{
-									case FORMAT:
-										value = FormatUtil.format(value.toString());
-										break;
-									case LIST_LOWER_CASE:
-										List<String> original = (List<String>) value;
-										List<String> lower = new ArrayList<>(original.size());
-										Iterator<String> iter = original.iterator();
-										while (iter.hasNext())
-										{
-											lower.add(iter.next().toLowerCase());
-											iter.remove();
-										}
-
-										value = lower;
-										break;
-									case LIST_UPPER_CASE:
-										original = (List<String>) value;
-										List<String> upper = new ArrayList<>(original.size());
-										iter = original.iterator();
-										while (iter.hasNext())
-										{
-											upper.add(iter.next().toLowerCase());
-											iter.remove();
-										}
-
-										value = upper;
-										break;
-									case LOWER_CASE:
-										value = value.toString().toLowerCase();
-										break;
-									case MINUTE_TO_MILLIS:
-										value = TimeUnit.MINUTES.toMillis(NumberUtil.toLong(value));
-										break;
-									case MINUTE_TO_TICKS:
-										value = TimeUnit.MINUTES.toSeconds(NumberUtil.toLong(value)) * TICKS_PER_SECOND;
-										break;
-									case PARSE_ENUM:
-										value = Enum.valueOf((Class<? extends Enum>) field.getType(), value.toString().toUpperCase().replace(" ", "_").replace(".", "_"));
-										break;
-									// Item parsing handles null values on its own
-									case PARSE_ITEM:
-										value = ItemUtil.readItem(value.toString(), plugin);
-										break;
-									case PARSE_ITEMS:
-										value = ItemUtil.readItems((List<String>) value, plugin);
-										break;
-									// Check for nulls with materials
-									case PARSE_MATERIAL:
-										String input = value.toString();
-
-										try
-										{
-											Integer.parseInt(input);
-											plugin.getLogHandler().log(Level.WARNING, "Use of type IDs is discouraged. Please change \"{0}\" in your config", path);
-										} catch (NumberFormatException ignored) { }
-
-										value = MaterialUtil.getMaterial(value.toString());
-										if (value == null && ! options.allowNull())
-										{
-											plugin.getLogHandler().log(Level.WARNING, "Failed to read material \"{0}\" from {1}. Defaulting to {2}", value, path, def);
-											value = def;
-										}
-
-										break;
-									case PARSE_MATERIALS:
-										List<Material> materials = new ArrayList<>();
-										for (Object element : (List<Object>) value)
-										{
-											String string = element.toString();
-
-											try
-											{
-												Integer.parseInt(string);
-												plugin.getLogHandler().log(Level.WARNING, "Use of type IDs is discouraged. Please change \"{0}\" in your config", path);
-											} catch (NumberFormatException ignored) { }
-
-											Material material = MaterialUtil.getMaterial(string);
-											if (material == null && ! options.allowNull())
-											{
-												plugin.getLogHandler().log(Level.WARNING, "Failed to read material \"{0}\" from {1}", string, path);
-											}
-											else
-											{
-												materials.add(material);
-											}
-										}
-
-										value = materials;
-										break;
-									case PARSE_MY_MATERIAL:
-										value = MyMaterial.fromString(value.toString());
-										if (value == null && ! options.allowNull())
-										{
-											plugin.getLogHandler().log(Level.WARNING, "Failed to read MyMaterial \"{0}\" from {1}. Defaulting to {2}", value, path, def);
-											value = def;
-										}
-									case SECOND_TO_MILLIS:
-										value = TimeUnit.SECONDS.toMillis(NumberUtil.toLong(value));
-										break;
-									case SECOND_TO_TICKS:
-										value = NumberUtil.toLong(value) * TICKS_PER_SECOND;
-										break;
-									default:
-										throw new IllegalStateException("Unsupported option: " + option);
-								}
+								plugin.getLogHandler().log(Level.WARNING, "Failed to read material \"{0}\" from {1}", string, path);
 							}
-
-							for (Class<?> custom : options.custom())
+							else
 							{
-								Method convert = custom.getMethod("convert", Object.class);
-								if (convert.isAccessible())
-								{
-									try
-									{
-										value = convert.invoke(null, value);
-									}
-									catch (Throwable ex)
-									{
-										plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "converting {0} using {1}", path, custom.getName()));
-									}
-								}
+								materials.add(material);
 							}
 						}
 
-						try
-						{
-							field.set(object, value);
-						}
-						catch (IllegalArgumentException ex)
+						return materials;
+					};
+				case PARSE_MY_MATERIAL:
+					return (plugin, def, value) ->
+					{
+						MyMaterial material = MyMaterial.fromString(value.toString());
+						if (material == null && ! allowNull)
 						{
-							plugin.getLogHandler().log(Level.WARNING, "\"{0}\" is the wrong type: expected {1}, but got {2}", path, field.getType(), value.getClass().getName());
-							plugin.getLogHandler().debug(Level.WARNING, Util.getUsefulStack(ex, "setting {0} to {1}", field, value));
+							plugin.getLogHandler().log(Level.WARNING, "Failed to read MyMaterial \"{0}\" from {1}. Defaulting to {2}", value, path, def);
+							return def;
 						}
-					}
-				}
-				catch (ClassCastException ex)
-				{
-					plugin.getLogHandler().log(Level.WARNING, "\"{0}\" is the wrong type: expected {1}, but got {2}", path, field.getType(), value.getClass().getName());
-					plugin.getLogHandler().debug(Level.WARNING, Util.getUsefulStack(ex, "setting {0} to {1}", field, value));
-				}
-				catch (Throwable ex)
-				{
-					plugin.getLogHandler().log(Level.SEVERE, Util.getUsefulStack(ex, "loading value from {0}", path));
-				}
+
+						return material;
+					};
+				case SECOND_TO_MILLIS:
+					return (plugin, def, value) -> TimeUnit.SECONDS.toMillis(NumberUtil.toLong(value));
+				case SECOND_TO_TICKS:
+					return (plugin, def, value) -> NumberUtil.toLong(value) * TICKS_PER_SECOND;
+				default:
+					throw new IllegalStateException("Unsupported option: " + option);
 			}
 		}
 	}
@@ -0,0 +1,69 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.exception;
+
+/**
+ * An Exception that results from an item definition that could not be
+ * parsed. The position points to the part of the definition that caused the
+ * problem.
+ *
+ * @author dmulloy2
+ * @see net.dmulloy2.types.ItemDefinition
+ */
+
+public class ItemParseException extends IllegalArgumentException
+{
+	private static final long serialVersionUID = -4386421851378154217L;
+
+	private final String input;
+	private final int position;
+
+	/**
+	 * Constructs an ItemParseException with a given message and position.
+	 *
+	 * @param message Exception message
+	 * @param input Definition that was being parsed
+	 * @param position Index in the definition where the problem was found
+	 */
+	public ItemParseException(String message, String input, int position)
+	{
+		super(message + " at position " + position + " in \"" + input + "\"");
+		this.input = input;
+		this.position = position;
+	}
+
+	/**
+	 * Gets the definition that was being parsed.
+	 *
+	 * @return The definition
+	 */
+	public String getInput()
+	{
+		return input;
+	}
+
+	/**
+	 * Gets the index in the definition where the problem was found.
+	 *
+	 * @return The position
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+}
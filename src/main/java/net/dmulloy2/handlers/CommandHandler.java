@@ -20,37 +20,64 @@ package net.dmulloy2.handlers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.chat.BaseComponent;
 import net.dmulloy2.chat.ComponentBuilder;
 import net.dmulloy2.commands.Command;
+import net.dmulloy2.commands.CommandIndex;
+import net.dmulloy2.commands.CommandMetrics;
 import net.dmulloy2.util.FormatUtil;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * Handles commands. This supports both prefixed and non-prefixed commands.
  *
  * @author dmulloy2
  */
 
-public class CommandHandler implements CommandExecutor
+public class CommandHandler implements CommandExecutor, TabCompleter
 {
 	private String commandPrefix;
 	private List<Command> registeredPrefixedCommands;
 	private List<Command> registeredCommands;
 
+	private CommandIndex<Command> prefixedIndex;
+	private CommandIndex<Command> index;
+
+	private ExecutorService asyncExecutor;
+	private volatile boolean shutdown;
+
+	private final Set<CompletableFuture<?>> syncCalls = ConcurrentHashMap.newKeySet();
+
+	// Incremented whenever cached command information goes out of date
+	private volatile int modCount;
+
+	private final CommandMetrics dispatchMetrics = new CommandMetrics();
+
 	private final SwornPlugin plugin;
 	public CommandHandler(SwornPlugin plugin)
 	{
 		this.plugin = plugin;
 		this.registeredCommands = new ArrayList<>();
+		this.index = new CommandIndex<>(registeredCommands);
 	}
 
 	/**
@@ -65,7 +92,9 @@ public class CommandHandler implements CommandExecutor
 		if (pluginCommand != null)
 		{
 			pluginCommand.setExecutor(command);
+			pluginCommand.setTabCompleter(command);
 			registeredCommands.add(command);
+			modCount++;
 		}
 		else
 		{
@@ -83,7 +112,10 @@ public class CommandHandler implements CommandExecutor
 	{
 		Validate.notNull(command, "command cannot be null!");
 		if (commandPrefix != null)
+		{
 			registeredPrefixedCommands.add(command);
+			modCount++;
+		}
 	}
 
 	/**
@@ -127,8 +159,12 @@ public class CommandHandler implements CommandExecutor
 		Validate.notEmpty(commandPrefix, "prefix cannot be null or empty!");
 		this.commandPrefix = commandPrefix;
 		this.registeredPrefixedCommands = new ArrayList<>();
+		this.prefixedIndex = new CommandIndex<>(registeredPrefixedCommands);
+		this.modCount++;
 
-		plugin.getCommand(commandPrefix).setExecutor(this);
+		PluginCommand pluginCommand = plugin.getCommand(commandPrefix);
+		pluginCommand.setExecutor(this);
+		pluginCommand.setTabCompleter(this);
 	}
 
 	/**
@@ -142,31 +178,78 @@ public class CommandHandler implements CommandExecutor
 	}
 
 	/**
-	 * Gets a {@link Command} by name.
+	 * Gets the number of times cached command information, like help pages,
+	 * has gone out of date. This changes when commands are registered and
+	 * when {@link #invalidate()} is called.
+	 *
+	 * @return The modification count
+	 */
+	public int getModCount()
+	{
+		return modCount;
+	}
+
+	/**
+	 * Marks cached command information, like help pages, as out of date. This
+	 * should be called if commands are added or removed without using the
+	 * register methods, or if anything they display has changed.
+	 */
+	public void invalidate()
+	{
+		modCount++;
+	}
+
+	/**
+	 * Gets a {@link Command} by name or alias. Prefixed commands take
+	 * precedence over non-prefixed commands.
 	 *
 	 * @param name Command name
 	 * @return Command, or null if not found
+	 * @see CommandIndex
 	 */
 	public final Command getCommand(String name)
 	{
 		Validate.notNull(name, "name cannot be null!");
-		for (Command command : registeredPrefixedCommands)
+		if (prefixedIndex != null)
 		{
-			if (name.equalsIgnoreCase(command.getName()) || command.getAliases().contains(name.toLowerCase()))
+			Command command = prefixedIndex.get(name);
+			if (command != null)
 				return command;
 		}
 
-		for (Command command : registeredCommands)
-		{
-			if (name.equalsIgnoreCase(command.getName()) || command.getAliases().contains(name.toLowerCase()))
-				return command;
-		}
+		return index.get(name);
+	}
 
-		return null;
+	/**
+	 * Gets the metrics for prefixed command dispatch. These include looking
+	 * up the command as well as executing it.
+	 *
+	 * @return The metrics
+	 * @see Command#getMetrics()
+	 */
+	public CommandMetrics getDispatchMetrics()
+	{
+		return dispatchMetrics;
 	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, org.bukkit.command.Command cmd, String label, String[] args)
+	{
+		long start = System.nanoTime();
+
+		try
+		{
+			dispatch(sender, args);
+		}
+		finally
+		{
+			dispatchMetrics.record(System.nanoTime() - start);
+		}
+
+		return true;
+	}
+
+	private void dispatch(CommandSender sender, String[] args)
 	{
 		if (args.length > 0)
 		{
@@ -178,14 +261,14 @@ public class CommandHandler implements CommandExecutor
 			if (command != null)
 			{
 				command.execute(sender, args);
-				return true;
+				return;
 			}
 
 			Command def = plugin.getDefaultCommand();
 			if (def != null)
 			{
 				def.execute(sender, originalArgs);
-				return true;
+				return;
 			}
 
 			if (sender instanceof Player)
@@ -204,8 +287,95 @@ public class CommandHandler implements CommandExecutor
 		{
 			getHelpCommand().execute(sender, args);
 		}
+	}
 
-		return true;
+	@Override
+	public List<String> onTabComplete(CommandSender sender, org.bukkit.command.Command cmd, String label, String[] args)
+	{
+		List<String> ret = new ArrayList<>();
+		if (args.length == 0)
+			return ret;
+
+		String name = args[0];
+		if (args.length == 1)
+		{
+			for (Command command : registeredPrefixedCommands)
+			{
+				String commandName = command.getName();
+				if (commandName.regionMatches(true, 0, name, 0, name.length()) && command.isListedTo(sender)
+						&& ! ret.contains(commandName))
+					ret.add(commandName);
+			}
+
+			return ret;
+		}
+
+		Command command = getCommand(name);
+		if (command != null)
+			return command.tabComplete(sender, Arrays.copyOfRange(args, 1, args.length));
+
+		return ret;
+	}
+
+	/**
+	 * Gets the worker pool that async commands are executed on. The pool has
+	 * a fixed number of threads and a bounded queue, so commands are rejected
+	 * rather than piling up if the workers can't keep up.
+	 *
+	 * @return The worker pool
+	 * @see net.dmulloy2.commands.ContextCommand
+	 */
+	public synchronized ExecutorService getAsyncExecutor()
+	{
+		if (shutdown)
+			throw new RejectedExecutionException(plugin.getName() + " is shut down");
+
+		if (asyncExecutor == null)
+		{
+			int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+			asyncExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(256),
+					new ThreadFactoryBuilder().setNameFormat(plugin.getName() + " Command Worker #%d").setDaemon(true).build());
+			((ThreadPoolExecutor) asyncExecutor).allowCoreThreadTimeOut(true);
+		}
+
+		return asyncExecutor;
+	}
+
+	/**
+	 * Registers a future that an async command is waiting on, so that it is
+	 * cancelled instead of never completing if this handler is shut down.
+	 *
+	 * @param future Future to register
+	 * @see Command#callSync(java.util.concurrent.Callable)
+	 */
+	public void registerSyncCall(CompletableFuture<?> future)
+	{
+		Validate.notNull(future, "future cannot be null!");
+
+		syncCalls.add(future);
+		future.whenComplete((result, ex) -> syncCalls.remove(future));
+
+		if (shutdown)
+			future.cancel(false);
+	}
+
+	/**
+	 * Shuts down the async command workers without waiting for them. Running
+	 * commands are interrupted, and anything they are waiting on from the main
+	 * thread is cancelled. This is called when the plugin is disabled.
+	 */
+	public synchronized void shutdown()
+	{
+		shutdown = true;
+
+		if (asyncExecutor != null)
+		{
+			asyncExecutor.shutdownNow();
+			asyncExecutor = null;
+		}
+
+		for (CompletableFuture<?> future : syncCalls)
+			future.cancel(false);
 	}
 
 	public final Command getHelpCommand()
@@ -17,14 +17,37 @@
  */
 package net.dmulloy2.handlers;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.types.IPermission;
+import net.dmulloy2.util.Util;
 
+import org.apache.commons.lang.Validate;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 
 /**
  * Handles permissions.
+ * <p>
+ * Listing commands checks the same permissions over and over, so
+ * {@link #hasCachedPermission(CommandSender, String)} caches checks for players
+ * for a short time. Bukkit has no event for permission changes, so the cache is
+ * cleared when a player changes worlds or quits and when {@link #invalidate()}
+ * is called. Otherwise changes take up to {@link #getCacheTime()} milliseconds
+ * to be noticed. {@link #hasPermission(CommandSender, String)} is never cached
+ * and should be used to decide whether a sender can actually do something.
  *
  * @author dmulloy2
  */
@@ -32,14 +55,28 @@ import org.bukkit.entity.Player;
 public class PermissionHandler
 {
 	private final String prefix;
+	private final Plugin plugin;
+
+	private final Map<IPermission, String> permissionStrings = new ConcurrentHashMap<>();
+	private final Map<UUID, CachedPermissions> cache = new ConcurrentHashMap<>();
+
+	private volatile long cacheTime = TimeUnit.SECONDS.toMillis(2L);
+	private volatile boolean listening;
+
 	public PermissionHandler(String prefix)
 	{
-		this.prefix = prefix.toLowerCase() + ".";
+		this(prefix, null);
 	}
 
 	public PermissionHandler(SwornPlugin plugin)
 	{
-		this(plugin.getName());
+		this(plugin.getName(), plugin);
+	}
+
+	private PermissionHandler(String prefix, Plugin plugin)
+	{
+		this.prefix = prefix.toLowerCase() + ".";
+		this.plugin = plugin;
 	}
 
 	/**
@@ -66,7 +103,49 @@ public class PermissionHandler
 		if (sender instanceof Player)
 		{
 			Player player = (Player) sender;
-			return player.hasPermission(permission) || player.isOp();
+			return player.isOp() || player.hasPermission(permission);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Whether or not a {@link CommandSender} has a permission, using a recent
+	 * result if there is one. This is meant for listing things like commands,
+	 * not for deciding whether a sender can use them.
+	 *
+	 * @param sender Sender to check.
+	 * @param permission Permission.
+	 * @return True if they have the permission, false if not
+	 * @see #hasPermission(CommandSender, IPermission)
+	 */
+	public final boolean hasCachedPermission(CommandSender sender, IPermission permission)
+	{
+		return permission == null || hasCachedPermission(sender, getPermissionString(permission));
+	}
+
+	/**
+	 * Whether or not a {@link CommandSender} has a permission, using a recent
+	 * result if there is one. This is meant for listing things like commands,
+	 * not for deciding whether a sender can use them.
+	 *
+	 * @param sender Sender to check.
+	 * @param permission Permission.
+	 * @return True if they have the permission, false if not
+	 * @see #hasPermission(CommandSender, String)
+	 */
+	public final boolean hasCachedPermission(CommandSender sender, String permission)
+	{
+		if (sender instanceof Player)
+		{
+			Player player = (Player) sender;
+			if (player.isOp())
+				return true;
+
+			if (cacheTime <= 0)
+				return player.hasPermission(permission);
+
+			return getCache(player).values.computeIfAbsent(permission, player::hasPermission);
 		}
 
 		return true;
@@ -74,12 +153,122 @@ public class PermissionHandler
 
 	/**
 	 * Gets the complete permission string for a given {@link IPermission}.
+	 * Permission strings are computed once per permission and interned.
 	 *
 	 * @param permission - Permission to get the node for.
 	 * @return The complete permission string
 	 */
 	public final String getPermissionString(IPermission permission)
 	{
-		return prefix + permission.getNode().toLowerCase();
+		return permissionStrings.computeIfAbsent(permission, perm -> (prefix + perm.getNode().toLowerCase()).intern());
+	}
+
+	/**
+	 * Gets how long cached permission checks are kept for.
+	 *
+	 * @return The cache time in milliseconds
+	 */
+	public long getCacheTime()
+	{
+		return cacheTime;
+	}
+
+	/**
+	 * Sets how long cached permission checks are kept for. Permission checks
+	 * are not cached if this is 0.
+	 *
+	 * @param cacheTime Cache time in milliseconds
+	 */
+	public void setCacheTime(long cacheTime)
+	{
+		Validate.isTrue(cacheTime >= 0, "cacheTime cannot be negative!");
+		this.cacheTime = cacheTime;
+		cache.clear();
+	}
+
+	/**
+	 * Clears all cached permission checks. This should be called after
+	 * changing permissions, and is called when the plugin is reloaded.
+	 */
+	public void invalidate()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * Clears the cached permission checks for a given player.
+	 *
+	 * @param player Player to clear
+	 */
+	public void invalidate(Player player)
+	{
+		Validate.notNull(player, "player cannot be null!");
+		cache.remove(player.getUniqueId());
+	}
+
+	private CachedPermissions getCache(Player player)
+	{
+		if (! listening)
+			registerListener();
+
+		UUID uniqueId = player.getUniqueId();
+		long now = System.currentTimeMillis();
+
+		CachedPermissions cached = cache.get(uniqueId);
+		if (cached == null || cached.player.get() != player || now - cached.created >= cacheTime)
+		{
+			cached = new CachedPermissions(player, now);
+			cache.put(uniqueId, cached);
+		}
+
+		return cached;
+	}
+
+	private synchronized void registerListener()
+	{
+		if (listening)
+			return;
+
+		listening = true;
+
+		try
+		{
+			Plugin plugin = this.plugin != null ? this.plugin : JavaPlugin.getProvidingPlugin(PermissionHandler.class);
+			plugin.getServer().getPluginManager().registerEvents(new CacheListener(), plugin);
+		}
+		catch (Throwable ex)
+		{
+			// Cached permissions still expire and are checked against the player
+			LogHandler.globalDebug(Util.getUsefulStack(ex, "registering permission cache listener"));
+		}
+	}
+
+	private static class CachedPermissions
+	{
+		private final WeakReference<Player> player;
+		private final long created;
+		private final Map<String, Boolean> values;
+
+		private CachedPermissions(Player player, long created)
+		{
+			this.player = new WeakReference<>(player);
+			this.created = created;
+			this.values = new ConcurrentHashMap<>();
+		}
+	}
+
+	private class CacheListener implements Listener
+	{
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onPlayerChangedWorld(PlayerChangedWorldEvent event)
+		{
+			cache.remove(event.getPlayer().getUniqueId());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onPlayerQuit(PlayerQuitEvent event)
+		{
+			cache.remove(event.getPlayer().getUniqueId());
+		}
 	}
 }
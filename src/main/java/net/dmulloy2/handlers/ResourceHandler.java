@@ -24,15 +24,17 @@ import java.util.logging.Level;
 
 import net.dmulloy2.SwornPlugin;
 import net.dmulloy2.io.FileResourceLoader;
+import net.dmulloy2.types.Reloadable;
 
 /**
  * @author dmulloy2
  */
 
-public class ResourceHandler
+public class ResourceHandler implements Reloadable
 {
 	private Locale locale;
-	private ResourceBundle messages;
+	private ClassLoader loader;
+	private volatile ResourceBundle messages;
 
 	private final SwornPlugin plugin;
 	public ResourceHandler(SwornPlugin plugin)
@@ -44,21 +46,43 @@ public class ResourceHandler
 	{
 		this.plugin = plugin;
 
+		if (plugin.getConfig().isSet("locale"))
+			locale = Locale.forLanguageTag(plugin.getConfig().getString("locale"));
+		if (locale == null)
+			locale = Locale.getDefault();
+
+		loader = new FileResourceLoader(classLoader, plugin);
+		messages = loadMessages();
+	}
+
+	private ResourceBundle loadMessages()
+	{
 		try
 		{
-			if (plugin.getConfig().isSet("locale"))
-				locale = Locale.forLanguageTag(plugin.getConfig().getString("locale"));
-			if (locale == null)
-				locale = Locale.getDefault();
-
-			messages = ResourceBundle.getBundle("messages", locale, new FileResourceLoader(classLoader, plugin));
+			return ResourceBundle.getBundle("messages", locale, loader);
 		}
 		catch (MissingResourceException ex)
 		{
 			plugin.getLogHandler().log(Level.SEVERE, "Could not find resource bundle: {0}", ex.getKey());
+			return null;
 		}
 	}
 
+	/**
+	 * Reloads the messages from disk. The new messages replace the old ones
+	 * all at once, so this can be called from any thread. If the bundle can
+	 * no longer be found, the old messages are kept.
+	 */
+	@Override
+	public void reload()
+	{
+		ResourceBundle.clearCache(loader);
+
+		ResourceBundle messages = loadMessages();
+		if (messages != null)
+			this.messages = messages;
+	}
+
 	private boolean bundleWarning;
 
 	/**
@@ -69,6 +93,7 @@ public class ResourceHandler
 	 */
 	public final String getMessage(String key)
 	{
+		ResourceBundle messages = this.messages;
 		if (messages == null)
 		{
 			if (! bundleWarning)
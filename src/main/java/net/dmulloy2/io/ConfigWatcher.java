@@ -0,0 +1,266 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.io;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.apache.commons.lang.Validate;
+
+import net.dmulloy2.SwornPlugin;
+import net.dmulloy2.handlers.ResourceHandler;
+import net.dmulloy2.util.Util;
+
+/**
+ * Watches a plugin's data folder and reloads files as they are changed.
+ * Changes to config.yml reload the configuration with
+ * {@link SwornPlugin#reloadAsync()}, and changes to messages*.properties
+ * reload the messages of a {@link ResourceHandler}. Only the file that
+ * changed is reloaded.
+ * <p>
+ * config.yml is only watched if the plugin
+ * {@link SwornPlugin#canReloadAsync() can reload it asynchronously}, since a
+ * full reload would block the main thread. Changes saved by the plugin itself
+ * are ignored.
+ * <p>
+ * Editors often write a file several times when saving it, so a reload
+ * only happens once a file has not changed for a short delay.
+ *
+ * @author dmulloy2
+ */
+
+public class ConfigWatcher implements Closeable
+{
+	public static final long DEFAULT_DELAY = 500L;
+
+	private static final String CONFIG = "config.yml";
+
+	private final SwornPlugin plugin;
+	private final ResourceHandler resources;
+	private final long delay;
+
+	private WatchService service;
+	private Thread thread;
+	private volatile boolean watchConfig;
+
+	/**
+	 * Creates a new watcher for a plugin's configuration.
+	 *
+	 * @param plugin Plugin to watch
+	 */
+	public ConfigWatcher(SwornPlugin plugin)
+	{
+		this(plugin, null, DEFAULT_DELAY);
+	}
+
+	/**
+	 * Creates a new watcher for a plugin's configuration and messages.
+	 *
+	 * @param plugin Plugin to watch
+	 * @param resources Messages to reload, or null to only watch config.yml
+	 * @param delay Time in milliseconds a file must go unchanged before it is
+	 *        reloaded
+	 */
+	public ConfigWatcher(SwornPlugin plugin, ResourceHandler resources, long delay)
+	{
+		Validate.notNull(plugin, "plugin cannot be null!");
+		Validate.isTrue(delay >= 0, "delay cannot be negative!");
+
+		this.plugin = plugin;
+		this.resources = resources;
+		this.delay = delay;
+	}
+
+	/**
+	 * Starts watching the data folder. This does nothing if the watcher is
+	 * already running.
+	 *
+	 * @throws IOException If the data folder could not be watched
+	 */
+	public synchronized void start() throws IOException
+	{
+		if (thread != null)
+			return;
+
+		Path folder = plugin.getDataFolder().toPath();
+		Files.createDirectories(folder);
+
+		watchConfig = plugin.canReloadAsync();
+		if (! watchConfig)
+			plugin.getLogHandler().log("Not watching {0} for changes, since it can't be reloaded asynchronously.", CONFIG);
+
+		service = folder.getFileSystem().newWatchService();
+		folder.register(service, ENTRY_CREATE, ENTRY_MODIFY);
+
+		WatchService service = this.service;
+		thread = new Thread(() -> run(service), plugin.getName() + " Config Watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Whether or not this watcher is running.
+	 *
+	 * @return True if it is, false if not
+	 */
+	public synchronized boolean isRunning()
+	{
+		return thread != null && thread.isAlive();
+	}
+
+	/**
+	 * Stops watching the data folder. This should be called when the plugin
+	 * is disabled.
+	 */
+	@Override
+	public synchronized void close()
+	{
+		if (thread == null)
+			return;
+
+		Closer.closeQuietly(service);
+		thread.interrupt();
+
+		service = null;
+		thread = null;
+	}
+
+	private void run(WatchService service)
+	{
+		Set<String> pending = new HashSet<>();
+		long deadline = 0;
+
+		try
+		{
+			while (true)
+			{
+				long wait = deadline - System.currentTimeMillis();
+				if (! pending.isEmpty() && wait <= 0)
+				{
+					if (pending.remove(CONFIG) && isConfigChanged())
+						reloadConfig();
+					if (! pending.isEmpty())
+						reloadMessages(pending);
+
+					pending.clear();
+					continue;
+				}
+
+				WatchKey key = pending.isEmpty() ? service.take() : service.poll(wait, TimeUnit.MILLISECONDS);
+				if (key == null)
+					continue;
+
+				for (WatchEvent<?> event : key.pollEvents())
+				{
+					if (event.kind() == OVERFLOW)
+					{
+						// Events were lost, so assume everything changed
+						if (watchConfig)
+							pending.add(CONFIG);
+						if (resources != null)
+							pending.add("messages.properties");
+						deadline = System.currentTimeMillis() + delay;
+						continue;
+					}
+
+					String file = event.context().toString();
+					if (isWatched(file))
+					{
+						pending.add(file);
+						deadline = System.currentTimeMillis() + delay;
+					}
+				}
+
+				if (! key.reset())
+				{
+					plugin.getLogHandler().log(Level.WARNING, "Data folder can no longer be watched for changes.");
+					return;
+				}
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException ex)
+		{
+			// Closed
+		}
+	}
+
+	private boolean isWatched(String file)
+	{
+		if (file.equals(CONFIG))
+			return watchConfig;
+
+		return resources != null && file.startsWith("messages") && file.endsWith(".properties");
+	}
+
+	// Saving the config from the plugin shouldn't reload it
+	private boolean isConfigChanged()
+	{
+		return new File(plugin.getDataFolder(), CONFIG).lastModified() != plugin.getConfigModified();
+	}
+
+	private void reloadConfig()
+	{
+		plugin.getLogHandler().log("Detected changes to {0}, reloading...", CONFIG);
+		long start = System.currentTimeMillis();
+
+		try
+		{
+			plugin.getServer().getScheduler().runTask(plugin, () -> plugin.reloadAsync().whenComplete((result, ex) ->
+			{
+				if (ex != null)
+					plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "reloading " + CONFIG));
+				else
+					plugin.getLogHandler().log("Reloaded {0}. Took {1} ms", CONFIG, System.currentTimeMillis() - start);
+			}));
+		}
+		catch (Throwable ex)
+		{
+			plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "reloading " + CONFIG));
+		}
+	}
+
+	// Messages are read on this thread, then swapped in all at once
+	private void reloadMessages(Set<String> files)
+	{
+		plugin.getLogHandler().log("Detected changes to {0}, reloading...", String.join(", ", files));
+
+		try
+		{
+			resources.reload();
+		}
+		catch (Throwable ex)
+		{
+			plugin.getLogHandler().log(Level.WARNING, Util.getUsefulStack(ex, "reloading messages"));
+		}
+	}
+}
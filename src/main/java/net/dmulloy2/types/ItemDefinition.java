@@ -0,0 +1,852 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Color;
+import org.bukkit.DyeColor;
+import org.bukkit.FireworkEffect;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.inventory.meta.FireworkEffectMeta;
+import org.bukkit.inventory.meta.FireworkMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.LeatherArmorMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import net.dmulloy2.exception.ItemParseException;
+import net.dmulloy2.util.CompatUtil;
+import net.dmulloy2.util.FormatUtil;
+import net.dmulloy2.util.ItemUtil;
+import net.dmulloy2.util.MaterialUtil;
+import net.dmulloy2.util.NumberUtil;
+import net.dmulloy2.util.Util;
+
+/**
+ * A parsed item definition, as read by {@link ItemUtil#readItem(String)}.
+ * The basic format is
+ * "<code>[Type]:[Data], [Amount], [Enchantment:Level...], [Property:Value...]</code>",
+ * and potions use
+ * "<code>potion:[Type], [Amount], [Level], [Splash], [Extended], [Property:Value...]</code>".
+ * <p>
+ * The supported properties are <code>name</code>, <code>lore</code> (lines
+ * separated by |), <code>color</code> (leather armor), <code>owner</code> and
+ * <code>type</code> (skulls), <code>power</code> and <code>effect</code>
+ * (fireworks), and <code>title</code>, <code>author</code>, and
+ * <code>pages</code> (books, pages separated by |). Firework effects are
+ * written as <code>[Type]|[Colors]|[Fade Colors]|[flicker+trail]</code>, with
+ * colors separated by +. Colors are dye colors or <code>#RRGGBB</code>.
+ * <p>
+ * Whitespace is ignored, underscores in text are read as spaces, and a
+ * backslash escapes the character after it, with <code>\n</code> being a line
+ * break. Definitions are read in a single pass, and problems are reported
+ * with an {@link ItemParseException} that points to where they were found.
+ * <p>
+ * {@link #toString()} writes a definition that parses back to an equal item.
+ * Text that contains a literal &amp; followed by a color code is the one
+ * exception, since it is read back as a color.
+ *
+ * @author dmulloy2
+ */
+
+@Getter
+public final class ItemDefinition
+{
+	// Properties whose underscores are spaces, and whose values are lists
+	private static final Set<String> TEXT_KEYS = new HashSet<>(Arrays.asList("name", "lore", "title", "author", "pages"));
+	private static final Set<String> LIST_KEYS = new HashSet<>(Arrays.asList("lore", "pages", "effect"));
+
+	private static final Map<String, Enchantment> enchantmentCache = new ConcurrentHashMap<>();
+
+	// Set while parsing, and never changed afterwards
+	private Material material;
+	private short data;
+	private int amount = 1;
+	private Map<Enchantment, Integer> enchantments = new LinkedHashMap<>();
+
+	private PotionType potion;
+	private int level;
+	private boolean splash;
+	private boolean extended;
+
+	private String name;
+	private List<String> lore;
+	private Color color;
+	private String owner;
+	private int power = -1;
+	private List<FireworkEffect> effects;
+	private String title;
+	private String author;
+	private List<String> pages;
+
+	@Getter(AccessLevel.NONE)
+	private boolean hasMeta;
+
+	private ItemDefinition() { }
+
+	/**
+	 * Parses an item definition.
+	 *
+	 * @param input Definition to parse
+	 * @return The definition
+	 * @throws ItemParseException If the definition could not be parsed
+	 */
+	public static ItemDefinition parse(String input)
+	{
+		Validate.notNull(input, "input cannot be null!");
+
+		Parser parser = new Parser(input);
+		parser.parseItem();
+		return parser.def.freeze();
+	}
+
+	/**
+	 * Parses only the properties of an item definition, like its name and
+	 * lore. The type, amount, and enchantments are ignored, and properties
+	 * are checked against a given item instead.
+	 *
+	 * @param input Definition to parse
+	 * @param item Item the properties are for
+	 * @return The definition
+	 * @throws ItemParseException If a property could not be parsed
+	 * @see #applyMeta(ItemStack)
+	 */
+	public static ItemDefinition parseProperties(String input, ItemStack item)
+	{
+		Validate.notNull(input, "input cannot be null!");
+		Validate.notNull(item, "item cannot be null!");
+
+		Parser parser = new Parser(input);
+		parser.def.material = item.getType();
+		parser.probe = item.getItemMeta();
+		parser.parseProperties();
+		return parser.def.freeze();
+	}
+
+	/**
+	 * Gets the definition of an existing item.
+	 *
+	 * @param item Item to get the definition of
+	 * @return The definition
+	 */
+	public static ItemDefinition of(ItemStack item)
+	{
+		Validate.notNull(item, "item cannot be null!");
+
+		ItemDefinition def = new ItemDefinition();
+		def.material = item.getType();
+		def.data = item.getDurability();
+		def.amount = item.getAmount();
+		def.enchantments.putAll(item.getEnchantments());
+
+		if (item.hasItemMeta())
+		{
+			ItemMeta meta = item.getItemMeta();
+			if (meta instanceof PotionMeta && (def.material == Material.POTION || def.material == Material.SPLASH_POTION))
+			{
+				PotionData data = ((PotionMeta) meta).getBasePotionData();
+				def.potion = data.getType();
+				def.level = data.isUpgraded() ? 2 : 1;
+				def.splash = def.material == Material.SPLASH_POTION;
+				def.extended = data.isExtended();
+				def.data = 0;
+			}
+
+			if (meta.hasDisplayName())
+				def.name = meta.getDisplayName();
+			if (meta.hasLore())
+				def.lore = new ArrayList<>(meta.getLore());
+
+			if (meta instanceof LeatherArmorMeta)
+			{
+				Color color = ((LeatherArmorMeta) meta).getColor();
+				if (! color.equals(Bukkit.getItemFactory().getDefaultLeatherColor()))
+					def.color = color;
+			}
+
+			if (meta instanceof SkullMeta && ((SkullMeta) meta).hasOwner())
+				def.owner = ((SkullMeta) meta).getOwner();
+
+			if (meta instanceof FireworkMeta)
+			{
+				FireworkMeta firework = (FireworkMeta) meta;
+				def.power = firework.getPower();
+				if (firework.hasEffects())
+					def.effects = new ArrayList<>(firework.getEffects());
+			}
+
+			if (meta instanceof FireworkEffectMeta && ((FireworkEffectMeta) meta).hasEffect())
+				def.effects = new ArrayList<>(Collections.singletonList(((FireworkEffectMeta) meta).getEffect()));
+
+			if (meta instanceof BookMeta)
+			{
+				BookMeta book = (BookMeta) meta;
+				if (book.hasTitle())
+					def.title = book.getTitle();
+				if (book.hasAuthor())
+					def.author = book.getAuthor();
+				if (book.hasPages())
+					def.pages = new ArrayList<>(book.getPages());
+			}
+		}
+
+		return def.freeze();
+	}
+
+	private ItemDefinition freeze()
+	{
+		this.enchantments = Collections.unmodifiableMap(enchantments);
+		if (lore != null)
+			this.lore = Collections.unmodifiableList(lore);
+		if (effects != null)
+			this.effects = Collections.unmodifiableList(effects);
+		if (pages != null)
+			this.pages = Collections.unmodifiableList(pages);
+
+		this.hasMeta = name != null || lore != null || color != null || owner != null || power >= 0 || effects != null
+				|| title != null || author != null || pages != null;
+		return this;
+	}
+
+	/**
+	 * Whether or not this is a potion definition.
+	 *
+	 * @return True if it is, false if not
+	 */
+	public boolean isPotion()
+	{
+		return potion != null;
+	}
+
+	/**
+	 * Creates a new item from this definition.
+	 *
+	 * @return The item
+	 */
+	public ItemStack toItemStack()
+	{
+		ItemStack item;
+		if (potion != null)
+			item = CompatUtil.createPotion(potion, amount, level, splash, extended);
+		else
+			item = new ItemStack(material, amount, data);
+
+		if (! enchantments.isEmpty())
+			item.addUnsafeEnchantments(enchantments);
+
+		applyMeta(item);
+		return item;
+	}
+
+	/**
+	 * Applies the properties of this definition, like its name and lore, to a
+	 * given item. Properties that do not apply to the item are ignored.
+	 *
+	 * @param item Item to apply the properties to
+	 */
+	public void applyMeta(ItemStack item)
+	{
+		Validate.notNull(item, "item cannot be null!");
+
+		if (! hasMeta)
+			return;
+
+		ItemMeta meta = item.getItemMeta();
+		if (name != null)
+			meta.setDisplayName(name);
+		if (lore != null)
+			meta.setLore(lore);
+
+		if (color != null && meta instanceof LeatherArmorMeta)
+			((LeatherArmorMeta) meta).setColor(color);
+
+		if (owner != null && meta instanceof SkullMeta)
+			((SkullMeta) meta).setOwner(owner);
+
+		if (meta instanceof FireworkMeta)
+		{
+			if (power >= 0)
+				((FireworkMeta) meta).setPower(power);
+			if (effects != null)
+				((FireworkMeta) meta).addEffects(effects);
+		}
+
+		if (effects != null && ! effects.isEmpty() && meta instanceof FireworkEffectMeta)
+			((FireworkEffectMeta) meta).setEffect(effects.get(0));
+
+		if (meta instanceof BookMeta)
+		{
+			BookMeta book = (BookMeta) meta;
+			if (title != null)
+				book.setTitle(title);
+			if (author != null)
+				book.setAuthor(author);
+			if (pages != null)
+				book.setPages(pages);
+		}
+
+		item.setItemMeta(meta);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder ret = new StringBuilder();
+		if (potion != null)
+		{
+			ret.append("potion:").append(potion.name()).append(", ").append(amount).append(", ").append(level)
+			   .append(", ").append(splash).append(", ").append(extended);
+		}
+		else
+		{
+			ret.append(material.name());
+			if (data > 0)
+				ret.append(':').append(data);
+			ret.append(", ").append(amount);
+		}
+
+		for (Entry<Enchantment, Integer> entry : enchantments.entrySet())
+			ret.append(", ").append(entry.getKey().getName()).append(':').append(entry.getValue());
+
+		if (name != null)
+			appendText(ret.append(", name:"), name, false);
+
+		if (lore != null)
+			appendList(ret.append(", lore:"), lore);
+
+		if (color != null)
+			ret.append(", color:").append(toString(color, false));
+
+		if (owner != null)
+			appendEscaped(ret.append(", owner:"), owner);
+
+		if (power >= 0)
+			ret.append(", power:").append(power);
+
+		if (effects != null)
+		{
+			for (FireworkEffect effect : effects)
+			{
+				ret.append(", effect:").append(effect.getType().name()).append('|');
+				appendColors(ret, effect.getColors());
+				ret.append('|');
+				appendColors(ret, effect.getFadeColors());
+				ret.append('|');
+				if (effect.hasFlicker())
+					ret.append("flicker");
+				if (effect.hasTrail())
+					ret.append(effect.hasFlicker() ? "+trail" : "trail");
+			}
+		}
+
+		if (title != null)
+			appendText(ret.append(", title:"), title, false);
+
+		if (author != null)
+			appendText(ret.append(", author:"), author, false);
+
+		if (pages != null)
+			appendList(ret.append(", pages:"), pages);
+
+		return ret.toString();
+	}
+
+	// ---- Writing
+
+	private static void appendList(StringBuilder ret, List<String> lines)
+	{
+		for (int i = 0; i < lines.size(); i++)
+		{
+			if (i > 0)
+				ret.append('|');
+			appendText(ret, lines.get(i), true);
+		}
+	}
+
+	private static void appendText(StringBuilder ret, String text, boolean list)
+	{
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (c == ChatColor.COLOR_CHAR)
+				ret.append('&');
+			else if (c == ' ')
+				ret.append('_');
+			else if (c == '\n')
+				ret.append("\\n");
+			else if (c == '_' || c == ',' || c == '\\' || (list && c == '|') || Character.isWhitespace(c))
+				ret.append('\\').append(c);
+			else
+				ret.append(c);
+		}
+	}
+
+	private static void appendEscaped(StringBuilder ret, String text)
+	{
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (c == ',' || c == '\\' || Character.isWhitespace(c))
+				ret.append('\\');
+			ret.append(c);
+		}
+	}
+
+	private static void appendColors(StringBuilder ret, List<Color> colors)
+	{
+		for (int i = 0; i < colors.size(); i++)
+		{
+			if (i > 0)
+				ret.append('+');
+			ret.append(toString(colors.get(i), true));
+		}
+	}
+
+	private static String toString(Color color, boolean firework)
+	{
+		DyeColor dye = firework ? DyeColor.getByFireworkColor(color) : DyeColor.getByColor(color);
+		if (dye != null)
+			return dye.name();
+
+		return String.format("#%06X", color.asRGB());
+	}
+
+	// ---- Parsing
+
+	private static final class Token
+	{
+		// Index of the first character, or of the comma after an empty token
+		private int position = -1;
+		private String key;
+		private final List<String> parts = new ArrayList<>(1);
+		private final List<Integer> positions = new ArrayList<>(1);
+
+		private String value()
+		{
+			return parts.get(0);
+		}
+
+		private int valuePosition()
+		{
+			return positions.get(0);
+		}
+
+		private boolean isEmpty()
+		{
+			return key == null && parts.get(0).isEmpty();
+		}
+	}
+
+	private static final class Parser
+	{
+		private final String input;
+		private final List<Token> tokens;
+		private final ItemDefinition def = new ItemDefinition();
+
+		// Meta of the item being defined, used to check which properties apply
+		private ItemMeta probe;
+
+		private Parser(String input)
+		{
+			this.input = input;
+			this.tokens = lex(input);
+		}
+
+		private ItemParseException error(String message, int position)
+		{
+			return new ItemParseException(message, input, position);
+		}
+
+		// Splits the input into comma separated tokens in a single pass
+		private List<Token> lex(String input)
+		{
+			List<Token> tokens = new ArrayList<>();
+			StringBuilder buffer = new StringBuilder();
+
+			Token token = new Token();
+			int start = -1;
+			boolean space = false, text = false, list = false;
+
+			int length = input.length();
+			for (int i = 0; i <= length; i++)
+			{
+				char c = i < length ? input.charAt(i) : ',';
+				if (token.position < 0 && ! Character.isWhitespace(c))
+					token.position = i;
+
+				if (c == ',')
+				{
+					token.parts.add(buffer.toString());
+					token.positions.add(start >= 0 ? start : i);
+					tokens.add(token);
+
+					token = new Token();
+					buffer.setLength(0);
+					start = -1;
+					space = text = list = false;
+					continue;
+				}
+
+				if (Character.isWhitespace(c))
+				{
+					space = true;
+					continue;
+				}
+
+				if (c == '\\')
+				{
+					if (i + 1 >= length)
+						throw error("Expected a character to escape", i);
+
+					if (start < 0)
+						start = i;
+
+					c = input.charAt(++i);
+					buffer.append(c == 'n' ? '\n' : c);
+					space = false;
+					continue;
+				}
+
+				if (c == ':' && token.key == null)
+				{
+					token.key = buffer.toString();
+					buffer.setLength(0);
+					start = -1;
+					space = false;
+
+					String key = token.key.toLowerCase();
+					text = TEXT_KEYS.contains(key);
+					list = LIST_KEYS.contains(key);
+					continue;
+				}
+
+				if (c == '|' && list)
+				{
+					token.parts.add(buffer.toString());
+					token.positions.add(start >= 0 ? start : i);
+					buffer.setLength(0);
+					start = -1;
+					space = false;
+					continue;
+				}
+
+				// Spaces in the type are read as underscores, like Material#matchMaterial
+				if (space && tokens.isEmpty() && buffer.length() > 0)
+					buffer.append('_');
+
+				if (start < 0)
+					start = i;
+
+				buffer.append(c == '_' && text ? ' ' : c);
+				space = false;
+			}
+
+			return tokens;
+		}
+
+		private void parseItem()
+		{
+			Token first = tokens.get(0);
+			int index;
+
+			if ("potion".equalsIgnoreCase(first.key))
+			{
+				PotionType type = net.dmulloy2.types.PotionType.findPotion(first.value());
+				if (type == null)
+					throw error("Unknown potion type \"" + first.value() + "\"", first.valuePosition());
+
+				def.potion = type;
+				def.amount = integer(require(1, "amount"), 0, Integer.MAX_VALUE, "amount");
+				def.level = integer(require(2, "level"), 0, Integer.MAX_VALUE, "level");
+
+				index = 3;
+				if (index < tokens.size() && tokens.get(index).key == null)
+				{
+					def.splash = Util.toBoolean(tokens.get(index++).value());
+					if (index < tokens.size() && tokens.get(index).key == null)
+						def.extended = Util.toBoolean(tokens.get(index++).value());
+				}
+
+				def.material = def.splash ? Material.SPLASH_POTION : Material.POTION;
+			}
+			else
+			{
+				String type = first.key != null ? first.key : first.value();
+				int position = first.key != null ? first.position : first.valuePosition();
+
+				def.material = type.isEmpty() ? null : MaterialUtil.getMaterial(type);
+				if (def.material == null)
+					throw error(type.isEmpty() ? "Expected an item type" : "Unknown item type \"" + type + "\"", position);
+
+				if (first.key != null)
+					def.data = (short) integer(first, 0, Short.MAX_VALUE, "data");
+
+				index = 1;
+				if (index < tokens.size() && tokens.get(index).key == null && ! tokens.get(index).isEmpty())
+					def.amount = integer(tokens.get(index++), 1, Integer.MAX_VALUE, "amount");
+			}
+
+			for (; index < tokens.size(); index++)
+			{
+				Token token = tokens.get(index);
+				if (token.isEmpty())
+					continue;
+
+				if (token.key == null)
+					throw error("Expected an enchantment or property", token.valuePosition());
+
+				if (! property(token))
+					enchantment(token);
+			}
+		}
+
+		private void parseProperties()
+		{
+			for (Token token : tokens)
+			{
+				if (token.key != null)
+					property(token);
+			}
+		}
+
+		private Token require(int index, String name)
+		{
+			if (index >= tokens.size() || tokens.get(index).isEmpty())
+				throw error("Expected " + name, index < tokens.size() ? tokens.get(index).position : input.length());
+
+			Token token = tokens.get(index);
+			if (token.key != null)
+				throw error("Expected " + name, token.position);
+
+			return token;
+		}
+
+		private int integer(Token token, int min, int max, String name)
+		{
+			String value = token.value();
+			long number = NumberUtil.parseLong(value, Long.MIN_VALUE);
+			if (number < min || number > max)
+				throw error("Invalid " + name + " \"" + value + "\"", token.valuePosition());
+
+			return (int) number;
+		}
+
+		private void enchantment(Token token)
+		{
+			Enchantment enchantment = enchantmentCache.computeIfAbsent(token.key.toLowerCase(), EnchantmentType::toEnchantment);
+			if (enchantment == null)
+				throw error("Unknown enchantment or property \"" + token.key + "\"", token.position);
+
+			def.enchantments.put(enchantment, integer(token, 1, Integer.MAX_VALUE, "level"));
+		}
+
+		private boolean property(Token token)
+		{
+			switch (token.key.toLowerCase())
+			{
+				case "name":
+					def.name = FormatUtil.replaceColors(token.value());
+					return true;
+				case "lore":
+					def.lore = colored(token.parts);
+					return true;
+				case "color":
+					if (! applies(token, LeatherArmorMeta.class))
+						return false;
+					def.color = color(token.value(), token.valuePosition(), false);
+					return true;
+				case "owner":
+					if (! applies(token, SkullMeta.class))
+						return false;
+					CustomSkullType custom = CustomSkullType.get(token.value());
+					def.owner = custom != null ? custom.getOwner() : token.value();
+					return true;
+				case "type":
+					if (! applies(token, SkullMeta.class))
+						return false;
+					custom = CustomSkullType.get(token.value());
+					if (custom == null)
+						throw error("Unknown skull type \"" + token.value() + "\"", token.valuePosition());
+					def.owner = custom.getOwner();
+					return true;
+				case "power":
+					if (! applies(token, FireworkMeta.class))
+						return false;
+					def.power = integer(token, 0, 127, "power");
+					return true;
+				case "effect":
+					if (! applies(token, FireworkMeta.class, FireworkEffectMeta.class))
+						return false;
+					if (def.effects == null)
+						def.effects = new ArrayList<>();
+					else if (probe instanceof FireworkEffectMeta)
+						throw error("Firework stars can only have one effect", token.position);
+					def.effects.add(effect(token));
+					return true;
+				case "title":
+					if (! applies(token, BookMeta.class))
+						return false;
+					def.title = FormatUtil.replaceColors(token.value());
+					return true;
+				case "author":
+					if (! applies(token, BookMeta.class))
+						return false;
+					def.author = FormatUtil.replaceColors(token.value());
+					return true;
+				case "pages":
+					if (! applies(token, BookMeta.class))
+						return false;
+					def.pages = colored(token.parts);
+					return true;
+				default:
+					return false;
+			}
+		}
+
+		// Keys like power are also enchantment names, which win on other items
+		private boolean applies(Token token, Class<?>... types)
+		{
+			if (probe == null && def.material != null)
+				probe = Bukkit.getItemFactory().getItemMeta(def.material);
+
+			for (Class<?> type : types)
+			{
+				if (type.isInstance(probe))
+					return true;
+			}
+
+			if (enchantmentCache.computeIfAbsent(token.key.toLowerCase(), EnchantmentType::toEnchantment) != null)
+				return false;
+
+			throw error("Property \"" + token.key + "\" does not apply to " + def.material, token.position);
+		}
+
+		private List<String> colored(List<String> parts)
+		{
+			List<String> ret = new ArrayList<>(parts.size());
+			for (String part : parts)
+				ret.add(FormatUtil.replaceColors(part));
+			return ret;
+		}
+
+		private FireworkEffect effect(Token token)
+		{
+			List<String> parts = token.parts;
+			if (parts.size() > 4)
+				throw error("Too many parts in firework effect", token.positions.get(4));
+
+			FireworkEffect.Type type = find(FireworkEffect.Type.class, parts.get(0));
+			if (type == null)
+				throw error("Unknown firework type \"" + parts.get(0) + "\"", token.valuePosition());
+
+			FireworkEffect.Builder builder = FireworkEffect.builder().with(type);
+
+			if (parts.size() < 2 || parts.get(1).isEmpty())
+				throw error("Expected firework colors", parts.size() < 2 ? token.position : token.positions.get(1));
+			builder.withColor(colors(parts.get(1), token.positions.get(1)));
+
+			if (parts.size() > 2 && ! parts.get(2).isEmpty())
+				builder.withFade(colors(parts.get(2), token.positions.get(2)));
+
+			if (parts.size() > 3 && ! parts.get(3).isEmpty())
+			{
+				String flags = parts.get(3);
+				int position = token.positions.get(3);
+				for (String flag : flags.split("\\+"))
+				{
+					if (flag.equalsIgnoreCase("flicker"))
+						builder.withFlicker();
+					else if (flag.equalsIgnoreCase("trail"))
+						builder.withTrail();
+					else if (! flag.isEmpty())
+						throw error("Unknown firework flag \"" + flag + "\"", position);
+
+					position += flag.length() + 1;
+				}
+			}
+
+			return builder.build();
+		}
+
+		private List<Color> colors(String string, int position)
+		{
+			List<Color> ret = new ArrayList<>();
+			for (String color : string.split("\\+"))
+			{
+				ret.add(color(color, position, true));
+				position += color.length() + 1;
+			}
+
+			return ret;
+		}
+
+		private Color color(String string, int position, boolean firework)
+		{
+			if (string.length() == 7 && string.charAt(0) == '#')
+			{
+				int rgb = 0;
+				for (int i = 1; i < 7; i++)
+				{
+					int digit = Character.digit(string.charAt(i), 16);
+					if (digit < 0)
+						throw error("Invalid color \"" + string + "\"", position);
+					rgb = rgb << 4 | digit;
+				}
+
+				return Color.fromRGB(rgb);
+			}
+
+			DyeColor dye = find(DyeColor.class, string);
+			if (dye == null)
+				throw error("Unknown color \"" + string + "\"", position);
+
+			return firework ? dye.getFireworkColor() : dye.getColor();
+		}
+
+		private static <T extends Enum<T>> T find(Class<T> type, String name)
+		{
+			for (T constant : type.getEnumConstants())
+			{
+				if (constant.name().equalsIgnoreCase(name))
+					return constant;
+			}
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.types;
+
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import net.dmulloy2.util.ItemUtil;
+
+/**
+ * An item definition that has been parsed ahead of time. Creating an item
+ * from a template produces the same result as
+ * {@link ItemUtil#readItem(String)}, but the definition is only parsed once.
+ * Each item is a copy of a prototype, so changes to one item do not affect
+ * the template or any other item.
+ * <p>
+ * Templates are immutable and can be shared between threads.
+ *
+ * @author dmulloy2
+ */
+
+public final class ItemTemplate
+{
+	private static final int MAX_CACHE_SIZE = 1024;
+
+	private static final LoadingCache<String, ItemTemplate> cache = CacheBuilder.newBuilder()
+			.maximumSize(MAX_CACHE_SIZE)
+			.recordStats()
+			.build(new CacheLoader<String, ItemTemplate>()
+			{
+				@Override
+				public ItemTemplate load(String definition)
+				{
+					return new ItemTemplate(definition, ItemUtil.parseItem(definition));
+				}
+			});
+
+	private final String definition;
+	private final ItemStack prototype;
+
+	private ItemTemplate(String definition, ItemStack prototype)
+	{
+		this.definition = definition;
+		this.prototype = prototype;
+	}
+
+	/**
+	 * Gets the template for a given item definition. Templates are cached, so
+	 * frequently used definitions are only parsed once. Definitions that fail
+	 * to parse are not cached.
+	 *
+	 * @param definition Definition to compile
+	 * @return The template
+	 * @throws RuntimeException If the definition could not be parsed, as
+	 *         described by {@link ItemUtil#readItem(String)}
+	 */
+	public static ItemTemplate compile(String definition)
+	{
+		Validate.notNull(definition, "definition cannot be null!");
+
+		try
+		{
+			return cache.getUnchecked(definition);
+		}
+		catch (UncheckedExecutionException ex)
+		{
+			Throwables.throwIfUnchecked(ex.getCause());
+			throw ex;
+		}
+	}
+
+	/**
+	 * Gets the hit and miss statistics of the template cache.
+	 *
+	 * @return The cache statistics
+	 */
+	public static CacheStats getCacheStats()
+	{
+		return cache.stats();
+	}
+
+	/**
+	 * Clears the template cache.
+	 */
+	public static void clearCache()
+	{
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Gets the definition this template was compiled from.
+	 *
+	 * @return The definition
+	 */
+	public String getDefinition()
+	{
+		return definition;
+	}
+
+	/**
+	 * Gets the type of the items this template creates.
+	 *
+	 * @return The type
+	 */
+	public Material getType()
+	{
+		return prototype.getType();
+	}
+
+	/**
+	 * Gets the amount of the items this template creates.
+	 *
+	 * @return The amount
+	 */
+	public int getAmount()
+	{
+		return prototype.getAmount();
+	}
+
+	/**
+	 * Gets the enchantments of the items this template creates.
+	 *
+	 * @return An unmodifiable map of enchantments to levels
+	 */
+	public Map<Enchantment, Integer> getEnchantments()
+	{
+		return prototype.getEnchantments();
+	}
+
+	/**
+	 * Creates a new item from this template.
+	 *
+	 * @return The item
+	 */
+	public ItemStack create()
+	{
+		return prototype.clone();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ItemTemplate{definition=" + definition + "}";
+	}
+}
@@ -0,0 +1,334 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2016 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.types;
+
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang.Validate;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import net.dmulloy2.util.FormatUtil;
+
+/**
+ * A message pattern that has been parsed ahead of time. Formatting a template
+ * produces the same result as {@link FormatUtil#format(String, Object...)},
+ * but the pattern's placeholders and color codes are only parsed once.
+ * <p>
+ * Templates are immutable and can be shared between threads.
+ *
+ * @author dmulloy2
+ */
+
+public final class MessageTemplate
+{
+	private static final int MAX_CACHE_SIZE = 1024;
+
+	private static final LoadingCache<String, MessageTemplate> cache = CacheBuilder.newBuilder()
+			.maximumSize(MAX_CACHE_SIZE)
+			.build(new CacheLoader<String, MessageTemplate>()
+			{
+				@Override
+				public MessageTemplate load(String pattern)
+				{
+					return new MessageTemplate(pattern);
+				}
+			});
+
+	private static final ThreadLocal<NumberFormat> numberFormat = ThreadLocal.withInitial(
+			() -> NumberFormat.getInstance(Locale.getDefault(Locale.Category.FORMAT)));
+	private static final ThreadLocal<DateFormat> dateFormat = ThreadLocal.withInitial(
+			() -> DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, Locale.getDefault(Locale.Category.FORMAT)));
+
+	private final String pattern;
+
+	// The pattern with colors replaced, used when formatting fails
+	private final String fallback;
+
+	// Set when the result does not depend on the arguments
+	private final String constant;
+
+	// Set for patterns with sub-formats, like {0,number,#.##}
+	private final MessageFormat format;
+
+	// Literal text between placeholders, raw and with colors replaced
+	private final String[] literals;
+	private final String[] coloredLiterals;
+	private final int[] arguments;
+	private final int literalLength;
+
+	// Whether colors can be replaced in each literal on its own
+	private final boolean separable;
+
+	private MessageTemplate(String pattern)
+	{
+		this.pattern = pattern;
+		this.fallback = FormatUtil.replaceColors(pattern);
+
+		MessageFormat format = createFormat(pattern);
+		Parts parts = format != null && ! hasSubFormats(format) ? parse(pattern) : null;
+
+		if (format == null)
+		{
+			// MessageFormat would fail every time
+			this.constant = fallback;
+			this.format = null;
+		}
+		else if (parts == null)
+		{
+			this.constant = null;
+			this.format = format;
+		}
+		else
+		{
+			this.constant = parts.arguments.length == 0 ? parts.coloredLiterals[0] : null;
+			this.format = null;
+		}
+
+		this.literals = parts != null ? parts.literals : null;
+		this.coloredLiterals = parts != null ? parts.coloredLiterals : null;
+		this.arguments = parts != null ? parts.arguments : null;
+		this.literalLength = parts != null ? parts.literalLength : 0;
+		this.separable = parts != null && parts.separable;
+	}
+
+	/**
+	 * Gets the compiled template for a given pattern. Templates are cached, so
+	 * frequently used patterns are only parsed once.
+	 *
+	 * @param pattern Pattern to compile
+	 * @return The template
+	 */
+	public static MessageTemplate compile(String pattern)
+	{
+		Validate.notNull(pattern, "pattern cannot be null!");
+		return cache.getUnchecked(pattern);
+	}
+
+	/**
+	 * Gets the pattern this template was compiled from.
+	 *
+	 * @return The pattern
+	 */
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	/**
+	 * Formats this template with the given arguments.
+	 *
+	 * @param args Arguments to format in
+	 * @return Formatted string
+	 * @see FormatUtil#format(String, Object...)
+	 */
+	public String format(Object... args)
+	{
+		if (constant != null)
+			return constant;
+
+		try
+		{
+			if (format != null)
+			{
+				MessageFormat format = (MessageFormat) this.format.clone();
+				return FormatUtil.replaceColors(format.format(args));
+			}
+
+			String[] values = new String[arguments.length];
+			boolean separable = this.separable;
+			int length = literalLength;
+
+			for (int i = 0; i < arguments.length; i++)
+			{
+				String value = values[i] = toString(args, arguments[i]);
+				if (separable && value.indexOf('&') != -1)
+					separable = false;
+				length += value.length();
+			}
+
+			StringBuilder ret = new StringBuilder(length);
+			String[] literals = separable ? coloredLiterals : this.literals;
+
+			for (int i = 0; i < values.length; i++)
+				ret.append(literals[i]).append(values[i]);
+			ret.append(literals[values.length]);
+
+			return separable ? ret.toString() : FormatUtil.replaceColors(ret.toString());
+		}
+		catch (Throwable ex)
+		{
+			return fallback;
+		}
+	}
+
+	// The equivalent of MessageFormat's handling of arguments without a format
+	private static String toString(Object[] args, int index)
+	{
+		if (args == null || index >= args.length)
+			return "{" + index + "}";
+
+		Object arg = args[index];
+		if (arg == null)
+			return "null";
+		if (arg instanceof String)
+			return (String) arg;
+		if (arg instanceof Number)
+			return numberFormat.get().format(arg);
+		if (arg instanceof Date)
+			return dateFormat.get().format(arg);
+
+		String string = arg.toString();
+		return string != null ? string : "null";
+	}
+
+	// ---- Parsing
+
+	private static MessageFormat createFormat(String pattern)
+	{
+		try
+		{
+			return new MessageFormat(pattern);
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return null;
+		}
+	}
+
+	private static boolean hasSubFormats(MessageFormat format)
+	{
+		for (Format subFormat : format.getFormats())
+		{
+			if (subFormat != null)
+				return true;
+		}
+
+		return false;
+	}
+
+	// Splits a pattern with only plain placeholders, following MessageFormat's
+	// quoting rules. Returns null if the pattern has to be left to MessageFormat
+	private static Parts parse(String pattern)
+	{
+		List<String> literals = new ArrayList<>();
+		List<Integer> arguments = new ArrayList<>();
+
+		StringBuilder literal = new StringBuilder();
+		boolean inQuote = false;
+
+		int length = pattern.length();
+		for (int i = 0; i < length; i++)
+		{
+			char c = pattern.charAt(i);
+			if (c == '\'')
+			{
+				if (i + 1 < length && pattern.charAt(i + 1) == '\'')
+				{
+					literal.append(c);
+					i++;
+				}
+				else
+				{
+					inQuote = ! inQuote;
+				}
+			}
+			else if (c == '{' && ! inQuote)
+			{
+				int end = pattern.indexOf('}', i);
+				if (end == -1 || end == i + 1)
+					return null;
+
+				int argument = 0;
+				for (int j = i + 1; j < end; j++)
+				{
+					char digit = pattern.charAt(j);
+					if (digit < '0' || digit > '9' || argument > 9999)
+						return null;
+					argument = argument * 10 + (digit - '0');
+				}
+
+				literals.add(literal.toString());
+				arguments.add(argument);
+				literal.setLength(0);
+				i = end;
+			}
+			else
+			{
+				literal.append(c);
+			}
+		}
+
+		literals.add(literal.toString());
+		return new Parts(literals, arguments);
+	}
+
+	private static final class Parts
+	{
+		private final String[] literals;
+		private final String[] coloredLiterals;
+		private final int[] arguments;
+		private final int literalLength;
+		private final boolean separable;
+
+		private Parts(List<String> literals, List<Integer> arguments)
+		{
+			this.literals = literals.toArray(new String[literals.size()]);
+			this.coloredLiterals = new String[this.literals.length];
+			this.arguments = new int[arguments.size()];
+
+			int literalLength = 0;
+			boolean separable = true;
+
+			for (int i = 0; i < this.literals.length; i++)
+			{
+				String text = this.literals[i];
+				coloredLiterals[i] = FormatUtil.replaceColors(text);
+				literalLength += text.length();
+
+				if (i < this.arguments.length)
+				{
+					this.arguments[i] = arguments.get(i);
+
+					// A trailing & or an unfinished &z carries over into the next argument
+					int amp = text.lastIndexOf('&');
+					if (amp != -1 && (amp == text.length() - 1 || Character.toLowerCase(text.charAt(amp + 1)) == 'z'))
+						separable = false;
+				}
+			}
+
+			this.literalLength = literalLength;
+			this.separable = separable;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "MessageTemplate{pattern=" + pattern + "}";
+	}
+}
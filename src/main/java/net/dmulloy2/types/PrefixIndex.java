@@ -0,0 +1,149 @@
+/**
+ * SwornAPI - common API for MineSworn and Shadowvolt plugins
+ * Copyright (C) 2015 dmulloy2
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.dmulloy2.types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * An immutable index of values by lowercased key, sorted so that every value
+ * whose key starts with a given prefix can be found with a binary search.
+ * This is mainly used for tab completion.
+ *
+ * @author dmulloy2
+ */
+
+public final class PrefixIndex<T>
+{
+	private final String[] keys;
+	private final Object[] values;
+
+	/**
+	 * Creates a new index of a given collection of values.
+	 *
+	 * @param values Values to index
+	 * @param keyFunction Gets the key of a value
+	 */
+	public PrefixIndex(Collection<? extends T> values, Function<? super T, String> keyFunction)
+	{
+		Validate.notNull(values, "values cannot be null!");
+		Validate.notNull(keyFunction, "keyFunction cannot be null!");
+
+		List<Entry> entries = new ArrayList<>(values.size());
+		for (T value : values)
+			entries.add(new Entry(keyFunction.apply(value).toLowerCase(), value));
+
+		entries.sort(Comparator.comparing(entry -> entry.key));
+
+		this.keys = new String[entries.size()];
+		this.values = new Object[entries.size()];
+
+		for (int i = 0; i < keys.length; i++)
+		{
+			Entry entry = entries.get(i);
+			this.keys[i] = entry.key;
+			this.values[i] = entry.value;
+		}
+	}
+
+	/**
+	 * Creates a new index of a given collection of strings. Duplicates are
+	 * removed, ignoring case.
+	 *
+	 * @param values Strings to index
+	 * @return The index
+	 */
+	public static PrefixIndex<String> of(Collection<String> values)
+	{
+		Validate.notNull(values, "values cannot be null!");
+
+		List<String> unique = new ArrayList<>(values.size());
+		String[] sorted = values.toArray(new String[values.size()]);
+		Arrays.sort(sorted, String.CASE_INSENSITIVE_ORDER);
+
+		for (String value : sorted)
+		{
+			if (unique.isEmpty() || ! unique.get(unique.size() - 1).equalsIgnoreCase(value))
+				unique.add(value);
+		}
+
+		return new PrefixIndex<>(unique, Function.identity());
+	}
+
+	/**
+	 * Finds every value whose key starts with a given prefix, ignoring case.
+	 * Values are returned in key order.
+	 *
+	 * @param prefix Prefix to search for
+	 * @return The values, which may be empty
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> find(String prefix)
+	{
+		Validate.notNull(prefix, "prefix cannot be null!");
+
+		prefix = prefix.toLowerCase();
+		List<T> ret = new ArrayList<>();
+
+		for (int i = indexOf(prefix); i < keys.length && keys[i].startsWith(prefix); i++)
+			ret.add((T) values[i]);
+
+		return ret;
+	}
+
+	/**
+	 * Gets the number of values in this index.
+	 *
+	 * @return The number of values
+	 */
+	public int size()
+	{
+		return keys.length;
+	}
+
+	// The index of the first key that is not less than the prefix
+	private int indexOf(String prefix)
+	{
+		int index = Arrays.binarySearch(keys, prefix);
+		if (index < 0)
+			return -(index + 1);
+
+		// Keys may be duplicated, find the first one
+		while (index > 0 && keys[index - 1].equals(prefix))
+			index--;
+		return index;
+	}
+
+	private static class Entry
+	{
+		private final String key;
+		private final Object value;
+
+		private Entry(String key, Object value)
+		{
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
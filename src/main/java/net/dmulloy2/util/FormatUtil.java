@@ -25,6 +25,7 @@ import org.apache.commons.lang.WordUtils;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 
+import net.dmulloy2.types.MessageTemplate;
 import net.dmulloy2.types.StringJoiner;
 
 /**
@@ -38,30 +39,29 @@ public class FormatUtil
 	private FormatUtil() { }
 
 	/**
-	 * Formats a given string with its objects.
+	 * Formats a given string with its objects. The string is compiled into a
+	 * {@link MessageTemplate}, which is cached for subsequent calls.
 	 *
 	 * @param format Base string
 	 * @param objects Objects to format in
 	 * @return Formatted string
 	 * @see MessageFormat#format(String, Object...)
+	 * @see MessageTemplate
 	 */
 	public static String format(String format, Object... objects)
 	{
 		Validate.notNull(format, "format cannot be null!");
 
-		try
-		{
-			format = MessageFormat.format(format, objects);
-		} catch (Throwable ignored) { }
-
-		return replaceColors(format);
+		return MessageTemplate.compile(format).format(objects);
 	}
 
-	private static final String[] rainbowColors = new String[]
+	private static final char[] rainbowColors = new char[]
 	{
-			"c", "6", "e", "a", "b", "d", "5"
+			'c', '6', 'e', 'a', 'b', 'd', '5'
 	};
 
+	private static final String colorCodes = "0123456789AaBbCcDdEeFfKkLlMmNnOoRr";
+
 	/**
 	 * Replaces color codes in a given string. Includes rainbow.
 	 *
@@ -71,38 +71,62 @@ public class FormatUtil
 	public static String replaceColors(String message)
 	{
 		Validate.notNull(message, "message cannot be null!");
-		message = message.replaceAll("(&([zZ]))", "&z");
-		if (message.contains("&z"))
-		{
-			StringBuilder ret = new StringBuilder();
-			String[] ss = message.split("&z");
-			ret.append(ss[0]);
-			ss[0] = null;
 
-			for (String s : ss)
+		int length = message.length();
+		if (message.indexOf('&') == -1)
+			return message;
+
+		StringBuilder ret = new StringBuilder(length + 16);
+
+		// Index of an '&' that may still become a color code, or -1
+		int pending = -1;
+
+		// &z colors each character until the next '&'
+		boolean rainbow = false;
+		int rainbowIndex = 0;
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = message.charAt(i);
+			if (c == '&')
 			{
-				if (s != null)
+				if (i + 1 < length && (message.charAt(i + 1) == 'z' || message.charAt(i + 1) == 'Z'))
 				{
-					int index = 0;
-					while (index < s.length() && s.charAt(index) != '&')
-					{
-						ret.append("&").append(rainbowColors[index % rainbowColors.length]);
-						ret.append(s.charAt(index));
-						index++;
-					}
-
-					if (index < s.length())
-					{
-						ret.append(s.substring(index));
-					}
+					rainbow = true;
+					rainbowIndex = 0;
+					pending = -1;
+					i++;
+					continue;
 				}
+
+				rainbow = false;
+				pending = ret.length();
+				ret.append(c);
+				continue;
+			}
+
+			if (rainbow)
+			{
+				ret.append(ChatColor.COLOR_CHAR).append(rainbowColors[rainbowIndex++ % rainbowColors.length]);
+				ret.append(c);
+				pending = -1;
+				continue;
+			}
+
+			if (pending != -1 && colorCodes.indexOf(c) != -1)
+			{
+				ret.setCharAt(pending, ChatColor.COLOR_CHAR);
+				ret.append(Character.toLowerCase(c));
+			}
+			else
+			{
+				ret.append(c);
 			}
 
-			message = ret.toString();
+			pending = -1;
 		}
 
-		// Format the colors
-		return ChatColor.translateAlternateColorCodes('&', message);
+		return ret.toString();
 	}
 
 	/**
@@ -19,22 +19,18 @@ package net.dmulloy2.util;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
+import java.util.stream.IntStream;
 
 import net.dmulloy2.SwornPlugin;
-import net.dmulloy2.types.CustomSkullType;
+import net.dmulloy2.exception.ItemParseException;
 import net.dmulloy2.types.EnchantmentType;
-import net.dmulloy2.types.StringJoiner;
+import net.dmulloy2.types.ItemDefinition;
+import net.dmulloy2.types.ItemTemplate;
 
-import org.bukkit.ChatColor;
-import org.bukkit.DyeColor;
-import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.LeatherArmorMeta;
-import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.potion.PotionType;
 
 /**
  * Utility for dealing with items and potions
@@ -48,82 +44,36 @@ public class ItemUtil
 	/**
 	 * Parses an ItemStack from configuration. This provides limited meta
 	 * support. This should be surrounded in a try-catch block to deal with
-	 * unparsable items.
+	 * unparsable items. Parsed items are cached, so reading the same string
+	 * again only copies the cached item.
 	 * <p>
 	 * The basic format is "<code>[Type]:[Data], [Amount],
-	 *  [Enchantment:Level...], [Meta]</code>"
+	 *  [Enchantment:Level...], [Meta]</code>". See {@link ItemDefinition}
+	 * for the full format.
 	 *
 	 * @param string String to parse
 	 * @return ItemStack from given string, unless parsing fails
-	 * @throws NullPointerException if the material is null
-	 * @throws IllegalArgumentException if the amount is less than 1
-	 * @throws IndexOutOfBoundsException if the string is in an improper format
+	 * @throws ItemParseException if the string is in an improper format
+	 * @see ItemDefinition
+	 * @see ItemTemplate
 	 */
 	public static ItemStack readItem(String string)
 	{
-		if (string.startsWith("potion:"))
-			return readPotion(string);
-
-		String materialStr = string, amountStr = "";
-		Map<Enchantment, Integer> enchants = new HashMap<>();
-
-		string = string.replaceAll("\\s", "");
-		if (string.contains(","))
-		{
-			String[] split = string.split(",");
-
-			materialStr = split[0];
-			amountStr = split[1];
-
-			for (int i = 2; i < split.length; i++)
-			{
-				String[] enchSplit = split[i].split(":");
-
-				Enchantment enchant = EnchantmentType.toEnchantment(enchSplit[0]);
-				int level = NumberUtil.toInt(enchSplit[1]);
-
-				if (enchant != null && level > 0)
-				{
-					enchants.put(enchant, level);
-				}
-			}
-		}
-
-		short data = 0;
-		if (materialStr.contains(":"))
-		{
-			String[] split = materialStr.split(":");
-			materialStr = split[0];
-
-			data = NumberUtil.toShort(split[1]);
-			if (data < 0)
-			{
-				throw new IllegalArgumentException("Invalid data: " + split[1]);
-			}
-		}
-
-		Material material = MaterialUtil.getMaterial(materialStr);
-		if (material == null)
-		{
-			throw new NullPointerException("Invalid material: " + materialStr);
-		}
-
-		int amount = 1;
-		if (!amountStr.isEmpty())
-		{
-			amount = NumberUtil.toInt(amountStr);
-			if (amount <= 0)
-			{
-				throw new IllegalArgumentException("Illegal amount: " + amountStr);
-			}
-		}
-
-		ItemStack item = new ItemStack(material, amount, data);
-		item.addUnsafeEnchantments(enchants);
+		return ItemTemplate.compile(string).create();
+	}
 
-		// Parse meta
-		parseItemMeta(item, string);
-		return item;
+	/**
+	 * Parses an ItemStack from configuration without using the template
+	 * cache. {@link #readItem(String)} should be used instead in most cases.
+	 *
+	 * @param string String to parse
+	 * @return ItemStack from given string, unless parsing fails
+	 * @throws ItemParseException if the string is in an improper format
+	 * @see #readItem(String)
+	 */
+	public static ItemStack parseItem(String string)
+	{
+		return ItemDefinition.parse(string).toItemStack();
 	}
 
 	/**
@@ -153,16 +103,86 @@ public class ItemUtil
 	 * @param strings Strings to parse
 	 * @param plugin Plugin instance
 	 * @return List of ItemStacks
-	 * @see #readItem(String)
+	 * @see #readItems(List, SwornPlugin, String)
 	 */
 	public static List<ItemStack> readItems(List<String> strings, SwornPlugin plugin)
 	{
-		List<ItemStack> ret = new ArrayList<>();
-		for (String string : strings)
+		return readItems(strings, plugin, "item list");
+	}
+
+	// Lists at least this long are parsed in parallel
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	// Failures beyond this are only counted in the report
+	private static final int MAX_REPORTED = 20;
+
+	/**
+	 * Safely reads a list of items. Large lists are parsed in parallel, and
+	 * the items are returned in the same order as the strings. Strings that
+	 * could not be parsed are left out and logged together in a single
+	 * report.
+	 * 
+	 * @param strings Strings to parse
+	 * @param plugin Plugin instance
+	 * @param source Where the strings came from, such as a config key
+	 * @return List of ItemStacks
+	 * @see #readItem(String)
+	 */
+	public static List<ItemStack> readItems(List<String> strings, SwornPlugin plugin, String source)
+	{
+		int size = strings.size();
+		ItemStack[] items = new ItemStack[size];
+		Throwable[] errors = new Throwable[size];
+
+		IntConsumer read = i ->
+		{
+			try
+			{
+				items[i] = readItem(strings.get(i));
+			}
+			catch (Throwable ex)
+			{
+				errors[i] = ex;
+			}
+		};
+
+		if (size >= PARALLEL_THRESHOLD)
+			IntStream.range(0, size).parallel().forEach(read);
+		else
+			IntStream.range(0, size).forEach(read);
+
+		List<ItemStack> ret = new ArrayList<>(size);
+		StringBuilder report = new StringBuilder();
+		int failed = 0;
+
+		for (int i = 0; i < size; i++)
 		{
-			ItemStack item = readItem(string, plugin);
-			if (item != null)
-				ret.add(item);
+			if (items[i] != null)
+			{
+				ret.add(items[i]);
+				continue;
+			}
+
+			Throwable ex = errors[i];
+			if (ex == null)
+				continue;
+
+			if (failed++ < MAX_REPORTED)
+			{
+				String message = ex instanceof ItemParseException ? ex.getMessage() : ex.toString();
+				report.append("\n  #").append(i + 1).append(": ").append(message);
+			}
+
+			if (! (ex instanceof ItemParseException))
+				plugin.getLogHandler().debug(Level.WARNING, Util.getUsefulStack(ex, "parsing item \"" + strings.get(i) + "\""));
+		}
+
+		if (failed > 0)
+		{
+			if (failed > MAX_REPORTED)
+				report.append("\n  ...and ").append(failed - MAX_REPORTED).append(" more");
+
+			plugin.getLogHandler().log(Level.WARNING, "Failed to parse {0} of {1} items from {2}:{3}", failed, size, source, report);
 		}
 
 		return ret;
@@ -174,172 +194,41 @@ public class ItemUtil
 	 * The basic format is <code>potion: &lt;type&gt;,&lt;amount&gt;,&ltlevel&gt;,[splash]</code>
 	 *
 	 * @param string String to read
-	 * @return ItemStack from string, or null if parsing fails
+	 * @return ItemStack from string
+	 * @throws ItemParseException if the string is in an improper format
 	 */
 	public static ItemStack readPotion(final String string)
 	{
-		// Normalize string
-		String normalized = string.replaceAll("\\s", "");
-		normalized = normalized.substring(string.indexOf(":") + 1);
-
-		String[] split = normalized.split(",");
-
-		PotionType type = net.dmulloy2.types.PotionType.findPotion(split[0]);
-		if (type == null)
-			throw new NullPointerException("Null potion type \"" + split[0] + "\"");
-
-		int amount = NumberUtil.toInt(split[1]);
-		if (amount < 0)
-			throw new IllegalArgumentException("Invalid amount " + amount);
+		if (string.regionMatches(true, 0, "potion:", 0, 7))
+			return ItemDefinition.parse(string).toItemStack();
 
-		int level = NumberUtil.toInt(split[2]);
-		if (level < 0)
-			throw new IllegalArgumentException("Invalid level " + level);
-
-		boolean splash = split.length > 3 && Util.toBoolean(split[3]);
-		boolean extended = split.length > 4 && Util.toBoolean(split[4]);
-
-		ItemStack potion = CompatUtil.createPotion(type, amount, level, splash, extended);
-
-		// Parse meta
-		parseItemMeta(potion, normalized);
-		return potion;
+		return ItemDefinition.parse("potion:" + string).toItemStack();
 	}
 
 	/**
 	 * Parses ItemMeta from a given string, then applies it to a given item.
 	 * @param item Item to apply meta to
 	 * @param string String to parse meta from
+	 * @throws ItemParseException if the meta is in an improper format
+	 * @see ItemDefinition#parseProperties(String, ItemStack)
 	 */
 	public static void parseItemMeta(ItemStack item, String string)
 	{
-		try
-		{
-			ItemMeta meta = item.getItemMeta();
-
-			// Name
-			String nameKey = "name:";
-			if (string.contains(nameKey))
-			{
-				String name = string.substring(string.indexOf(nameKey) + nameKey.length());
-				int commaIndex = name.indexOf(",");
-				if (commaIndex != -1)
-					name = name.substring(0, commaIndex);
-
-				meta.setDisplayName(FormatUtil.format(name.replace('_', ' ')));
-			}
-
-			// Lore
-			String loreKey = "lore:";
-			if (string.contains(loreKey))
-			{
-				String str = string.substring(string.indexOf(loreKey) + loreKey.length());
-				int commaIndex = str.indexOf(",");
-				if (commaIndex != -1)
-					str = str.substring(0, commaIndex);
-				str = str.replace('_', ' ');
-
-				List<String> lore = new ArrayList<>();
-				for (String split : str.split("\\|"))
-					lore.add(FormatUtil.format(split));
-				meta.setLore(lore);
-			}
-
-			// Leather armor
-			if (meta instanceof LeatherArmorMeta)
-			{
-				String colorKey = "color:";
-				if (string.contains(colorKey))
-				{
-					String str = string.substring(string.indexOf(colorKey) + colorKey.length());
-					int commaIndex = str.indexOf(",");
-					if (commaIndex != -1)
-						str = str.substring(0, commaIndex);
-
-					DyeColor dyeColor = DyeColor.valueOf(str.toUpperCase());
-					((LeatherArmorMeta) meta).setColor(dyeColor.getColor());
-				}
-			}
-
-			// Skulls
-			if (meta instanceof SkullMeta)
-			{
-				String ownerKey = "owner:";
-				String typeKey = "type:";
-
-				if (string.contains(ownerKey))
-				{
-					String owner = string.substring(string.indexOf(ownerKey) + ownerKey.length());
-
-					// Attempt to use CustomSkullType
-					CustomSkullType type = CustomSkullType.get(owner);
-					if (type != null)
-						((SkullMeta) meta).setOwner(type.getOwner());
-					else
-						((SkullMeta) meta).setOwner(owner);
-				}
-				else if (string.contains(typeKey))
-				{
-					String type = string.substring(string.indexOf(typeKey) + typeKey.length());
-
-					// Attempt to use CustomSkullType
-					CustomSkullType customType = CustomSkullType.get(type);
-					((SkullMeta) meta).setOwner(customType.getOwner());
-				}
-			}
-
-			// TODO: Firework and Book support
-			item.setItemMeta(meta);
-		} catch (Throwable ignored) { }
+		ItemDefinition.parseProperties(string, item).applyMeta(item);
 	}
 
 	/**
 	 * Serializes a given ItemStack in the same format as
-	 * {@link ItemUtil#readItem(String)}.
+	 * {@link ItemUtil#readItem(String)}. Reading the result produces an equal
+	 * item.
 	 *
 	 * @param stack Stack to serialize
 	 * @return Serialized string
+	 * @see ItemDefinition#toString()
 	 */
 	public static String serialize(ItemStack stack)
 	{
-		StringBuilder ret = new StringBuilder();
-		ret.append(stack.getType());
-		if (stack.getDurability() > 0)
-			ret.append(":").append(stack.getDurability());
-		ret.append(", ").append(stack.getAmount());
-
-		if (! stack.getEnchantments().isEmpty())
-		{
-			StringJoiner joiner = new StringJoiner(", ");
-			for (Entry<Enchantment, Integer> ench : stack.getEnchantments().entrySet())
-				joiner.append(EnchantmentType.toName(ench.getKey()) + ":" + ench.getValue());
-			ret.append(", ").append(joiner.toString());
-		}
-
-		ItemMeta meta = stack.getItemMeta();
-		if (meta.hasDisplayName())
-		{
-			ret.append(", name:").append(meta.getDisplayName()
-					.replace(ChatColor.COLOR_CHAR, '&')
-					.replace(' ', '_'));
-		}
-
-		if (meta.hasLore())
-		{
-			StringJoiner lore = new StringJoiner("|");
-			for (String line : meta.getLore())
-			{
-				lore.append(line
-						.replace(ChatColor.COLOR_CHAR, '&')
-						.replace(' ', '_'));
-			}
-
-			ret.append(", lore:").append(lore.toString());
-		}
-
-		// TODO: More meta support
-
-		return ret.toString();
+		return ItemDefinition.of(stack).toString();
 	}
 
 	/**
@@ -85,15 +85,15 @@ public class MaterialUtil
 			}
 		} catch (Throwable ignored) { }
 
-		try
+		int id = NumberUtil.parseInt(string, -1);
+		if (id >= 0)
 		{
-			int id = Integer.parseInt(string);
 			material = idToMaterial.get(id);
 			if (material != null)
 			{
 				return material;
 			}
-		} catch (NumberFormatException ignored) { }
+		}
 
 		// Resolve using Vault, if applicable
 		if (Bukkit.getPluginManager() != null && Bukkit.getPluginManager().isPluginEnabled("Vault"))
@@ -18,6 +18,9 @@
 package net.dmulloy2.util;
 
 import java.text.DecimalFormat;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 /**
  * Util for managing Numbers.
@@ -42,11 +45,7 @@ public class NumberUtil
 			return ((Number) object).intValue();
 		}
 
-		try
-		{
-			return Integer.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		return object != null ? parseInt(object.toString(), -1) : -1;
 	}
 
 	/**
@@ -57,15 +56,7 @@ public class NumberUtil
 	 */
 	public static boolean isInt(Object object)
 	{
-		try
-		{
-			Integer.valueOf(object.toString());
-			return true;
-		}
-		catch (NumberFormatException ex)
-		{
-			return false;
-		}
+		return isInt(object.toString());
 	}
 
 	/**
@@ -81,11 +72,11 @@ public class NumberUtil
 			return ((Number) object).floatValue();
 		}
 
-		try
-		{
-			return Float.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		if (object == null)
+			return -1;
+
+		String string = object.toString();
+		return (float) parseDecimal(string, 0, string.length(), -1, true);
 	}
 
 	/**
@@ -96,15 +87,8 @@ public class NumberUtil
 	 */
 	public static boolean isFloat(Object object)
 	{
-		try
-		{
-			Float.valueOf(object.toString());
-			return true;
-		}
-		catch (NumberFormatException ex)
-		{
-			return false;
-		}
+		String string = object.toString();
+		return isDecimal(string, 0, string.length(), true);
 	}
 
 	/**
@@ -120,11 +104,7 @@ public class NumberUtil
 			return ((Number) object).doubleValue();
 		}
 
-		try
-		{
-			return Double.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		return object != null ? parseDouble(object.toString(), -1) : -1;
 	}
 
 	/**
@@ -135,15 +115,7 @@ public class NumberUtil
 	 */
 	public static boolean isDouble(Object object)
 	{
-		try
-		{
-			Double.valueOf(object.toString());
-			return true;
-		}
-		catch (NumberFormatException ex)
-		{
-			return false;
-		}
+		return isDouble(object.toString());
 	}
 
 	/**
@@ -159,11 +131,7 @@ public class NumberUtil
 			return ((Number) object).longValue();
 		}
 
-		try
-		{
-			return Long.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		return object != null ? parseLong(object.toString(), -1) : -1;
 	}
 
 	/**
@@ -174,15 +142,7 @@ public class NumberUtil
 	 */
 	public static boolean isLong(Object object)
 	{
-		try
-		{
-			Long.valueOf(object.toString());
-			return true;
-		}
-		catch (NumberFormatException ex)
-		{
-			return false;
-		}
+		return isLong(object.toString());
 	}
 
 	/**
@@ -198,11 +158,11 @@ public class NumberUtil
 			return ((Number) object).shortValue();
 		}
 
-		try
-		{
-			return Short.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		if (object == null)
+			return -1;
+
+		String string = object.toString();
+		return (short) parse(string, 0, string.length(), Short.MIN_VALUE, Short.MAX_VALUE, -1);
 	}
 
 	/**
@@ -213,15 +173,8 @@ public class NumberUtil
 	 */
 	public static boolean isShort(Object object)
 	{
-		try
-		{
-			Short.valueOf(object.toString());
-			return true;
-		}
-		catch (NumberFormatException ex)
-		{
-			return false;
-		}
+		String string = object.toString();
+		return isInteger(string, 0, string.length(), Short.MIN_VALUE, Short.MAX_VALUE);
 	}
 
 	/**
@@ -237,11 +190,11 @@ public class NumberUtil
 			return ((Number) object).byteValue();
 		}
 
-		try
-		{
-			return Byte.valueOf(object.toString());
-		} catch (Throwable ignored) { }
-		return -1;
+		if (object == null)
+			return -1;
+
+		String string = object.toString();
+		return (byte) parse(string, 0, string.length(), Byte.MIN_VALUE, Byte.MAX_VALUE, -1);
 	}
 
 	/**
@@ -252,15 +205,401 @@ public class NumberUtil
 	 */
 	public static boolean isByte(Object object)
 	{
+		String string = object.toString();
+		return isInteger(string, 0, string.length(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+	}
+
+	// ---- Exception-free parsing
+
+	/**
+	 * Parses an {@code int} without throwing an exception. This accepts the
+	 * same input as {@link Integer#parseInt(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param def Value to return if parsing fails
+	 * @return The parsed int, or {@code def} if parsing failed
+	 */
+	public static int parseInt(CharSequence seq, int def)
+	{
+		return seq != null ? parseInt(seq, 0, seq.length(), def) : def;
+	}
+
+	/**
+	 * Parses an {@code int} from a range of characters without throwing an
+	 * exception or allocating. This accepts the same input as
+	 * {@link Integer#parseInt(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @param def Value to return if parsing fails
+	 * @return The parsed int, or {@code def} if parsing failed
+	 */
+	public static int parseInt(CharSequence seq, int start, int end, int def)
+	{
+		return (int) parse(seq, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE, def);
+	}
+
+	/**
+	 * Returns whether or not a sequence of characters can be parsed as an int.
+	 *
+	 * @param seq Characters to check
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isInt(CharSequence seq)
+	{
+		return seq != null && isInt(seq, 0, seq.length());
+	}
+
+	/**
+	 * Returns whether or not a range of characters can be parsed as an int.
+	 *
+	 * @param seq Characters to check
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isInt(CharSequence seq, int start, int end)
+	{
+		return isInteger(seq, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Attempts to parse an {@code int} without throwing an exception.
+	 *
+	 * @param seq Characters to parse
+	 * @return The parsed int, or an empty optional if parsing failed
+	 */
+	public static OptionalInt tryParseInt(CharSequence seq)
+	{
+		if (seq == null)
+			return OptionalInt.empty();
+
+		long value = parse(seq, 0, seq.length(), Integer.MIN_VALUE, Integer.MAX_VALUE, OUT_OF_RANGE);
+		return value != OUT_OF_RANGE ? OptionalInt.of((int) value) : OptionalInt.empty();
+	}
+
+	/**
+	 * Parses a {@code long} without throwing an exception. This accepts the
+	 * same input as {@link Long#parseLong(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param def Value to return if parsing fails
+	 * @return The parsed long, or {@code def} if parsing failed
+	 */
+	public static long parseLong(CharSequence seq, long def)
+	{
+		return seq != null ? parseLong(seq, 0, seq.length(), def) : def;
+	}
+
+	/**
+	 * Parses a {@code long} from a range of characters without throwing an
+	 * exception or allocating. This accepts the same input as
+	 * {@link Long#parseLong(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @param def Value to return if parsing fails
+	 * @return The parsed long, or {@code def} if parsing failed
+	 */
+	public static long parseLong(CharSequence seq, int start, int end, long def)
+	{
+		long result = accumulate(seq, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+		return result != FAILED ? signed(seq, start, result) : def;
+	}
+
+	/**
+	 * Returns whether or not a sequence of characters can be parsed as a long.
+	 *
+	 * @param seq Characters to check
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isLong(CharSequence seq)
+	{
+		return seq != null && isLong(seq, 0, seq.length());
+	}
+
+	/**
+	 * Returns whether or not a range of characters can be parsed as a long.
+	 *
+	 * @param seq Characters to check
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isLong(CharSequence seq, int start, int end)
+	{
+		return isInteger(seq, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Attempts to parse a {@code long} without throwing an exception.
+	 *
+	 * @param seq Characters to parse
+	 * @return The parsed long, or an empty optional if parsing failed
+	 */
+	public static OptionalLong tryParseLong(CharSequence seq)
+	{
+		if (seq == null)
+			return OptionalLong.empty();
+
+		long result = accumulate(seq, 0, seq.length(), Long.MIN_VALUE, Long.MAX_VALUE);
+		return result != FAILED ? OptionalLong.of(signed(seq, 0, result)) : OptionalLong.empty();
+	}
+
+	/**
+	 * Parses a {@code double} without throwing an exception. This accepts
+	 * the same input as {@link Double#parseDouble(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param def Value to return if parsing fails
+	 * @return The parsed double, or {@code def} if parsing failed
+	 */
+	public static double parseDouble(CharSequence seq, double def)
+	{
+		return seq != null ? parseDouble(seq, 0, seq.length(), def) : def;
+	}
+
+	/**
+	 * Parses a {@code double} from a range of characters without throwing an
+	 * exception. Invalid input is rejected without allocating. This accepts
+	 * the same input as {@link Double#parseDouble(String)}.
+	 *
+	 * @param seq Characters to parse
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @param def Value to return if parsing fails
+	 * @return The parsed double, or {@code def} if parsing failed
+	 */
+	public static double parseDouble(CharSequence seq, int start, int end, double def)
+	{
+		return parseDecimal(seq, start, end, def, false);
+	}
+
+	/**
+	 * Returns whether or not a sequence of characters can be parsed as a
+	 * double.
+	 *
+	 * @param seq Characters to check
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isDouble(CharSequence seq)
+	{
+		return seq != null && isDouble(seq, 0, seq.length());
+	}
+
+	/**
+	 * Returns whether or not a range of characters can be parsed as a double.
+	 *
+	 * @param seq Characters to check
+	 * @param start Start index, inclusive
+	 * @param end End index, exclusive
+	 * @return True if it can be parsed, false if not
+	 */
+	public static boolean isDouble(CharSequence seq, int start, int end)
+	{
+		return isDecimal(seq, start, end, false);
+	}
+
+	/**
+	 * Attempts to parse a {@code double} without throwing an exception.
+	 *
+	 * @param seq Characters to parse
+	 * @return The parsed double, or an empty optional if parsing failed
+	 */
+	public static OptionalDouble tryParseDouble(CharSequence seq)
+	{
+		if (seq == null || checkDecimal(seq, 0, seq.length()) == INVALID)
+			return OptionalDouble.empty();
+
 		try
 		{
-			Byte.valueOf(object.toString());
-			return true;
+			// Only hexadecimal input can still fail here
+			return OptionalDouble.of(Double.parseDouble(seq.toString()));
 		}
 		catch (NumberFormatException ex)
 		{
+			return OptionalDouble.empty();
+		}
+	}
+
+	// Returned by parse for ranges narrower than a long, which can't contain it
+	private static final long OUT_OF_RANGE = Long.MIN_VALUE;
+
+	// Returned by accumulate on failure, since it never returns a positive value
+	private static final long FAILED = 1L;
+
+	// Parses a base 10 integer in a range narrower than a long
+	private static long parse(CharSequence seq, int start, int end, long min, long max, long def)
+	{
+		long result = accumulate(seq, start, end, min, max);
+		return result != FAILED ? signed(seq, start, result) : def;
+	}
+
+	private static boolean isInteger(CharSequence seq, int start, int end, long min, long max)
+	{
+		return accumulate(seq, start, end, min, max) != FAILED;
+	}
+
+	// Parses a base 10 integer in a given range, the same way Long.parseLong
+	// does, but returns minus its absolute value so that FAILED can't be valid
+	private static long accumulate(CharSequence seq, int start, int end, long min, long max)
+	{
+		if (seq == null || start < 0 || end > seq.length() || start >= end)
+			return FAILED;
+
+		int i = start;
+		boolean negative = false;
+		char first = seq.charAt(i);
+		if (first == '-' || first == '+')
+		{
+			negative = first == '-';
+			if (++i == end)
+				return FAILED;
+		}
+
+		// Accumulate negatively, since the minimum has the larger magnitude
+		long limit = negative ? min : -max;
+		long multMin = limit / 10;
+		long result = 0;
+
+		for (; i < end; i++)
+		{
+			int digit = Character.digit(seq.charAt(i), 10);
+			if (digit < 0 || result < multMin)
+				return FAILED;
+
+			result *= 10;
+			if (result < limit + digit)
+				return FAILED;
+			result -= digit;
+		}
+
+		return result;
+	}
+
+	// Applies the sign of a successfully accumulated integer
+	private static long signed(CharSequence seq, int start, long result)
+	{
+		return seq.charAt(start) == '-' ? result : -result;
+	}
+
+	private static final int INVALID = 0;
+	private static final int VALID = 1;
+	private static final int HEX = 2;
+
+	private static double parseDecimal(CharSequence seq, int start, int end, double def, boolean isFloat)
+	{
+		int state = checkDecimal(seq, start, end);
+		if (state == INVALID)
+			return def;
+
+		String string = seq.subSequence(start, end).toString();
+		if (state == VALID)
+			return isFloat ? Float.parseFloat(string) : Double.parseDouble(string);
+
+		// Hexadecimal floating point is rare enough to leave to the JDK
+		try
+		{
+			return isFloat ? Float.parseFloat(string) : Double.parseDouble(string);
+		}
+		catch (NumberFormatException ex)
+		{
+			return def;
+		}
+	}
+
+	private static boolean isDecimal(CharSequence seq, int start, int end, boolean isFloat)
+	{
+		int state = checkDecimal(seq, start, end);
+		return state == VALID || state == HEX && ! Double.isNaN(parseDecimal(seq, start, end, Double.NaN, isFloat));
+	}
+
+	// Checks the decimal grammar of Double.parseDouble without parsing
+	private static int checkDecimal(CharSequence seq, int start, int end)
+	{
+		if (seq == null || start < 0 || end > seq.length())
+			return INVALID;
+
+		// Leading and trailing whitespace is ignored, like String.trim
+		while (start < end && seq.charAt(start) <= ' ')
+			start++;
+		while (end > start && seq.charAt(end - 1) <= ' ')
+			end--;
+
+		if (start == end)
+			return INVALID;
+
+		int i = start;
+		char c = seq.charAt(i);
+		if (c == '-' || c == '+')
+		{
+			if (++i == end)
+				return INVALID;
+			c = seq.charAt(i);
+		}
+
+		if (c == 'N' || c == 'I')
+			return regionEquals(seq, i, end, c == 'N' ? "NaN" : "Infinity") ? VALID : INVALID;
+
+		if (c == '0' && i + 1 < end && (seq.charAt(i + 1) == 'x' || seq.charAt(i + 1) == 'X'))
+			return HEX;
+
+		boolean digits = false;
+		while (i < end && (c = seq.charAt(i)) >= '0' && c <= '9')
+		{
+			digits = true;
+			i++;
+		}
+
+		if (i < end && seq.charAt(i) == '.')
+		{
+			i++;
+			while (i < end && (c = seq.charAt(i)) >= '0' && c <= '9')
+			{
+				digits = true;
+				i++;
+			}
+		}
+
+		if (! digits)
+			return INVALID;
+
+		if (i < end && ((c = seq.charAt(i)) == 'e' || c == 'E'))
+		{
+			if (++i < end && ((c = seq.charAt(i)) == '-' || c == '+'))
+				i++;
+
+			boolean exponent = false;
+			while (i < end && (c = seq.charAt(i)) >= '0' && c <= '9')
+			{
+				exponent = true;
+				i++;
+			}
+
+			if (! exponent)
+				return INVALID;
+		}
+
+		if (i < end && ((c = seq.charAt(i)) == 'f' || c == 'F' || c == 'd' || c == 'D'))
+			i++;
+
+		return i == end ? VALID : INVALID;
+	}
+
+	private static boolean regionEquals(CharSequence seq, int start, int end, String string)
+	{
+		if (end - start != string.length())
 			return false;
+
+		for (int i = 0; i < string.length(); i++)
+		{
+			if (seq.charAt(start + i) != string.charAt(i))
+				return false;
 		}
+
+		return true;
 	}
 
 	/**
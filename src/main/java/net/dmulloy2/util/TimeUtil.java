@@ -17,15 +17,23 @@
  */
 package net.dmulloy2.util;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import net.dmulloy2.exception.BadTimeException;
 
+import org.apache.commons.lang.Validate;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 /**
  * Util for dealing with time.
  *
@@ -36,6 +44,19 @@ public class TimeUtil
 {
 	private TimeUtil() { }
 
+	private static final long SECOND = 1000L;
+	private static final long MINUTE = 60 * SECOND;
+	private static final long HOUR = 60 * MINUTE;
+	private static final long DAY = 24 * HOUR;
+
+	private static final String LONG_DATE = "MM/dd/yy HH:mm";
+	private static final String SIMPLE_DATE = "dd MMM yyyy";
+
+	private static final LoadingCache<FormatterKey, DateTimeFormatter> formatters = CacheBuilder.newBuilder()
+			.maximumSize(128)
+			.build(CacheLoader.from(key -> DateTimeFormatter.ofPattern(key.pattern)
+					.withZone(TimeZone.getTimeZone(key.timeZone).toZoneId())));
+
 	/**
 	 * Returns the formatted time difference between two times.
 	 *
@@ -68,21 +89,33 @@ public class TimeUtil
 	 */
 	public static final String formatTime(long time)
 	{
-		StringBuilder ret = new StringBuilder();
-		int days = (int) Math.floor(time / (1000 * 3600 * 24));
-		int hours = (int) Math.floor((time % (1000 * 3600 * 24)) / (1000 * 3600));
-		int minutes = (int) Math.floor((time % (1000 * 3600 * 24)) % (1000 * 3600) / (1000 * 60));
-		int seconds = (int) Math.floor(time % (1000 * 3600 * 24) % (1000 * 3600) % (1000 * 60) / 1000);
+		return formatTime(time, new StringBuilder(16)).toString();
+	}
+
+	/**
+	 * Formats a given time into a given builder, such as {@code 1d2h30m0s}.
+	 * Nothing is allocated besides growing the builder.
+	 *
+	 * @param time Time in milliseconds
+	 * @param builder Builder to append to
+	 * @return The builder, for chaining
+	 */
+	public static StringBuilder formatTime(long time, StringBuilder builder)
+	{
+		long days = time / DAY;
+		long hours = time % DAY / HOUR;
+		long minutes = time % DAY % HOUR / MINUTE;
+		long seconds = time % DAY % HOUR % MINUTE / SECOND;
 
 		if (days != 0)
-			ret.append(days).append("d");
+			builder.append(days).append('d');
 		if (hours != 0 || days != 0)
-			ret.append(hours).append("h");
+			builder.append(hours).append('h');
 		if (minutes != 0 || hours != 0 || days != 0)
-			ret.append(minutes).append("m");
-		ret.append(seconds).append("s");
+			builder.append(minutes).append('m');
+		builder.append(seconds).append('s');
 
-		return ret.toString();
+		return builder;
 	}
 
 	/**
@@ -93,13 +126,7 @@ public class TimeUtil
 	 */
 	public static String getLongDateCurr(String timeZone)
 	{
-		if (timeZone == null || timeZone.isEmpty())
-			timeZone = "GMT";
-
-		DateFormat dateFormat = new SimpleDateFormat("MM/dd/yy HH:mm");
-		Date date = new Date();
-		dateFormat.setTimeZone(TimeZone.getTimeZone(timeZone));
-		return dateFormat.format(date);
+		return formatDate(System.currentTimeMillis(), LONG_DATE, timeZone);
 	}
 
 	/**
@@ -121,13 +148,7 @@ public class TimeUtil
 	 */
 	public static String getSimpleDate(long time, String timeZone)
 	{
-		if (timeZone == null || timeZone.isEmpty())
-			timeZone = "GMT";
-
-		DateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy");
-		Date date = new Date(time);
-		dateFormat.setTimeZone(TimeZone.getTimeZone(timeZone));
-		return dateFormat.format(date);
+		return formatDate(time, SIMPLE_DATE, timeZone);
 	}
 
 	/**
@@ -141,64 +162,226 @@ public class TimeUtil
 		return getSimpleDate(time, "GMT");
 	}
 
+	// ---- Date Formatting
+
 	/**
-	 * Parses a given time.
+	 * Gets a formatter for a given pattern and time zone. Formatters are
+	 * immutable, cached, and safe to share between threads.
 	 *
-	 * @param time Time
-	 * @return The parsed time
-	 * @throws BadTimeException If parsing fails
+	 * @param pattern Pattern, see {@link DateTimeFormatter}
+	 * @param timeZone Time zone, defaults to GMT. Unknown zones are GMT, like
+	 *        {@link TimeZone#getTimeZone(String)}.
+	 * @return The formatter
+	 * @throws IllegalArgumentException If the pattern is invalid
 	 */
-	public static long parseTime(String time) throws BadTimeException
+	public static DateTimeFormatter getFormatter(String pattern, String timeZone)
 	{
+		Validate.notNull(pattern, "pattern cannot be null!");
+		if (timeZone == null || timeZone.isEmpty())
+			timeZone = "GMT";
+
 		try
 		{
-			if (! time.matches("[0-9]+d[a-z]*"))
-				return Math.round(Double.parseDouble(time) * 60) * 1000;
-			else
-			{
-				Pattern dayPattern = Pattern.compile("([0-9]+)d[a-z]*", Pattern.CASE_INSENSITIVE);
-				Matcher m = dayPattern.matcher(time);
+			return formatters.getUnchecked(new FormatterKey(pattern, timeZone));
+		}
+		catch (UncheckedExecutionException ex)
+		{
+			Throwables.throwIfUnchecked(ex.getCause());
+			throw ex;
+		}
+	}
 
-				if (m.matches())
-				{
-					return Integer.parseInt(m.group(1)) * 24 * 60 * 60 * 1000;
-				}
-			}
+	/**
+	 * Formats a given time with a given pattern and time zone.
+	 *
+	 * @param time Time in milliseconds
+	 * @param pattern Pattern, see {@link DateTimeFormatter}
+	 * @param timeZone Time zone, defaults to GMT
+	 * @return The formatted date
+	 * @see #getFormatter(String, String)
+	 */
+	public static String formatDate(long time, String pattern, String timeZone)
+	{
+		return getFormatter(pattern, timeZone).format(Instant.ofEpochMilli(time));
+	}
+
+	/**
+	 * Formats several times with the same pattern and time zone. The
+	 * formatter is only looked up once, which makes this a good fit for
+	 * things like paginated history.
+	 *
+	 * @param times Times in milliseconds
+	 * @param pattern Pattern, see {@link DateTimeFormatter}
+	 * @param timeZone Time zone, defaults to GMT
+	 * @return The formatted dates, in the same order
+	 * @see #getFormatter(String, String)
+	 */
+	public static List<String> formatDates(long[] times, String pattern, String timeZone)
+	{
+		Validate.notNull(times, "times cannot be null!");
+
+		DateTimeFormatter formatter = getFormatter(pattern, timeZone);
+		List<String> ret = new ArrayList<>(times.length);
+		StringBuilder builder = new StringBuilder();
+
+		for (long time : times)
+		{
+			builder.setLength(0);
+			formatter.formatTo(Instant.ofEpochMilli(time), builder);
+			ret.add(builder.toString());
+		}
+
+		return ret;
+	}
+
+	private static final class FormatterKey
+	{
+		private final String pattern;
+		private final String timeZone;
+
+		private FormatterKey(String pattern, String timeZone)
+		{
+			this.pattern = pattern;
+			this.timeZone = timeZone;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+				return true;
+			if (! (obj instanceof FormatterKey))
+				return false;
+
+			FormatterKey that = (FormatterKey) obj;
+			return pattern.equals(that.pattern) && timeZone.equals(that.timeZone);
 		}
-		catch (NumberFormatException ex)
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * pattern.hashCode() + timeZone.hashCode();
+		}
+	}
+
+	/**
+	 * Parses a given time. Times are made of one or more numbers followed by
+	 * a unit: {@code d}ays, {@code h}ours, {@code m}inutes, or {@code s}econds,
+	 * such as {@code 1d2h30m} or {@code 5 minutes}. A number without a unit
+	 * is a number of minutes, and may have a decimal point.
+	 *
+	 * @param time Time
+	 * @return The parsed time in milliseconds
+	 * @throws BadTimeException If parsing fails
+	 */
+	public static long parseTime(String time) throws BadTimeException
+	{
+		if (time == null)
+			throw new BadTimeException("Failed to parse time", new NullPointerException("time cannot be null!"));
+
+		long ret = parseTime(time, Long.MIN_VALUE);
+		if (ret == Long.MIN_VALUE)
 		{
-			Pattern hourPattern = Pattern.compile("([0-9]+)h[a-z]*", Pattern.CASE_INSENSITIVE);
-			Pattern minPattern = Pattern.compile("([0-9]+)m[a-z]*", Pattern.CASE_INSENSITIVE);
-			Pattern secPattern = Pattern.compile("([0-9]+)s[a-z]*", Pattern.CASE_INSENSITIVE);
+			// Message for backwards compatibility.
+			throw new BadTimeException("badtime");
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Parses a given time without throwing an exception.
+	 *
+	 * @param time Time
+	 * @param def Value to return if parsing fails
+	 * @return The parsed time in milliseconds, or {@code def} if parsing failed
+	 * @see #parseTime(String)
+	 */
+	public static long parseTime(CharSequence time, long def)
+	{
+		if (time == null)
+			return def;
+
+		long ret = parseUnits(time);
+		if (ret != -1)
+			return ret;
 
-			Matcher m = hourPattern.matcher(time);
+		// Plain numbers are minutes
+		OptionalDouble minutes = NumberUtil.tryParseDouble(time);
+		if (minutes.isPresent())
+			return Math.round(minutes.getAsDouble() * 60) * 1000;
 
-			if (m.matches())
+		return def;
+	}
+
+	// Parses numbers followed by units in a single pass, returns -1 if invalid
+	private static long parseUnits(CharSequence time)
+	{
+		int length = time.length();
+		long total = 0;
+		boolean parsed = false;
+
+		int i = 0;
+		while (i < length)
+		{
+			if (Character.isWhitespace(time.charAt(i)))
 			{
-				return Integer.parseInt(m.group(1)) * 60 * 60 * 1000;
+				i++;
+				continue;
 			}
 
-			m = minPattern.matcher(time);
+			long value = 0;
+			int start = i;
+			char c;
+			while (i < length && (c = time.charAt(i)) >= '0' && c <= '9')
+			{
+				value = value * 10 + (c - '0');
+				if (value > Integer.MAX_VALUE)
+					return -1;
+				i++;
+			}
 
-			if (m.matches())
+			// Allow a space between the number and the unit
+			if (i > start)
 			{
-				return Integer.parseInt(m.group(1)) * 60 * 1000;
+				while (i < length && Character.isWhitespace(time.charAt(i)))
+					i++;
 			}
 
-			m = secPattern.matcher(time);
+			if (i == start || i == length)
+				return -1;
 
-			if (m.matches())
+			long unit;
+			switch (Character.toLowerCase(time.charAt(i)))
 			{
-				return Integer.parseInt(m.group(1)) * 1000;
+				case 'd':
+					unit = DAY;
+					break;
+				case 'h':
+					unit = HOUR;
+					break;
+				case 'm':
+					unit = MINUTE;
+					break;
+				case 's':
+					unit = SECOND;
+					break;
+				default:
+					return -1;
 			}
-		}
-		catch (Throwable ex)
-		{
-			throw new BadTimeException("Failed to parse time", ex);
+
+			// Skip the rest of the unit, like "minutes"
+			i++;
+			while (i < length && Character.isLetter(time.charAt(i)))
+				i++;
+
+			total += value * unit;
+			if (total < 0)
+				return -1;
+			parsed = true;
 		}
 
-		// Message for backwards compatibility.
-		throw new BadTimeException("badtime");
+		return parsed ? total : -1;
 	}
 
 	// ---- Conversion Methods
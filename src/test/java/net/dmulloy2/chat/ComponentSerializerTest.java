@@ -0,0 +1,139 @@
+/**
+ * (c) 2016 dmulloy2
+ */
+package net.dmulloy2.chat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * @author dmulloy2
+ */
+
+public class ComponentSerializerTest
+{
+	@Test
+	public void testPlainText()
+	{
+		assertSameJson(new TextComponent("Hello world"));
+		assertSameJson(new TextComponent(""));
+		assertSameJson();
+	}
+
+	@Test
+	public void testEscaping()
+	{
+		assertSameJson(new TextComponent("\"quoted\" \\ back\tslash\n<html> & 'x' = y \u2028 \u2029 \u0001 \u00a7c"));
+	}
+
+	@Test
+	public void testFormatting()
+	{
+		TextComponent component = new TextComponent("Formatted");
+		component.setColor("RED");
+		component.setBold(true);
+		component.setItalic(false);
+		component.setUnderlined(true);
+		component.setStrikethrough(false);
+		component.setObfuscated(true);
+		assertSameJson(component);
+	}
+
+	@Test
+	public void testEvents()
+	{
+		TextComponent component = new TextComponent("Click me");
+		component.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/help <page>"));
+
+		TextComponent hover = new TextComponent("Hover");
+		hover.setColor("gold");
+		component.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new BaseComponent[] { hover, new TextComponent("text") }));
+
+		assertSameJson(component);
+		assertSameJson(component, new TextComponent(" and more"));
+	}
+
+	@Test
+	public void testExtra()
+	{
+		TextComponent parent = new TextComponent("Parent");
+		parent.setExtra(new ArrayList<>());
+		assertSameJson(parent);
+
+		TextComponent child = new TextComponent("Child");
+		child.setBold(true);
+		parent.addExtra(child);
+		parent.addExtra("plain");
+		child.addExtra(new TextComponent("Grandchild"));
+		assertSameJson(parent);
+
+		BaseComponent[] built = new ComponentBuilder("Built ").color(org.bukkit.ChatColor.GREEN).append("message")
+				.event(new ClickEvent(ClickEvent.Action.SUGGEST_COMMAND, "/say hi")).create();
+		assertSameJson(built);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoop()
+	{
+		TextComponent parent = new TextComponent("Parent");
+		TextComponent child = new TextComponent("Child");
+		parent.setExtra(new ArrayList<>(Arrays.asList(child)));
+		child.setExtra(new ArrayList<>(Arrays.asList(parent)));
+		ComponentWriter.toJson(parent);
+	}
+
+	@Test
+	public void testParse()
+	{
+		assertSameParse("\"Plain text\"");
+		assertSameParse("{\"text\":\"Formatted\",\"color\":\"RED\",\"bold\":true,\"strikethrough\":\"true\",\"obfuscated\":false}");
+		assertSameParse("[\"one\",{\"text\":\"two\",\"italic\":true},\"three\"]");
+		assertSameParse("{\"text\":\"\",\"extra\":[\"a\",{\"text\":\"b\",\"extra\":[{\"text\":\"c\",\"underlined\":true}]}]}");
+		assertSameParse("{\"text\":\"Click\",\"clickEvent\":{\"action\":\"run_command\",\"value\":\"/help 2\"}}");
+		assertSameParse("{\"text\":\"Hover\",\"hoverEvent\":{\"action\":\"show_text\",\"value\":\"Single\"}}");
+		assertSameParse("{\"text\":\"Hover\",\"hoverEvent\":{\"action\":\"show_text\",\"value\":[\"a\","
+				+ "{\"text\":\"b\",\"hoverEvent\":{\"action\":\"show_text\",\"value\":{\"text\":\"nested\",\"color\":\"gold\"}}}]}}");
+	}
+
+	@Test
+	public void testRoundTrip()
+	{
+		TextComponent component = new TextComponent("Round trip <&>");
+		component.setColor("aqua");
+		component.setStrikethrough(true);
+		component.setClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, "http://example.com/?a=b&c=d"));
+		component.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new BaseComponent[] { new TextComponent("Line 1\nLine 2") }));
+		component.addExtra(new TextComponent("extra"));
+
+		String json = ComponentSerializer.toString(component);
+		assertEquals(json, ComponentSerializer.toString(ComponentSerializer.parse(json)[0]));
+	}
+
+	@Test(expected = JsonParseException.class)
+	public void testMalformed()
+	{
+		ComponentSerializer.parse("{\"text\":\"unclosed\"");
+	}
+
+	private void assertSameParse(String json)
+	{
+		assertEquals(ComponentWriter.toJson(ComponentSerializer.parseGson(json)),
+				ComponentWriter.toJson(ComponentSerializer.parse(json)));
+	}
+
+	private void assertSameJson(BaseComponent component)
+	{
+		assertEquals(ComponentSerializer.toGsonString(component), ComponentWriter.toJson(component));
+	}
+
+	private void assertSameJson(BaseComponent... components)
+	{
+		assertEquals(ComponentSerializer.toGsonString(components), ComponentWriter.toJson(components));
+	}
+}
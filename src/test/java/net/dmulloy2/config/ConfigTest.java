@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -38,12 +39,14 @@ import com.google.common.io.Resources;
 
 public class ConfigTest
 {
+	private static SwornPlugin plugin;
+
 	@BeforeClass
 	public static void beforeClass() throws Throwable
 	{
 		BukkitTesting.prepare();
 
-		SwornPlugin plugin = mock(SwornPlugin.class);
+		plugin = mock(SwornPlugin.class);
 		when(plugin.getLogHandler()).thenReturn(new LogHandler(plugin, Logger.getGlobal()));
 
 		// Mock the config
@@ -109,6 +112,46 @@ public class ConfigTest
 		assertTrue(data.isExtended());
 	}
 
+	@Test
+	public void testChanges()
+	{
+		YamlConfiguration config = new YamlConfiguration();
+		config.set("first", "one");
+		config.set("second", "two");
+
+		ConfigParser.parse(plugin, config, Changes.class);
+		assertEquals(Changes.first, "one");
+		assertEquals(Changes.second, "two");
+
+		List<String> changed = new ArrayList<>();
+		ConfigParser.addListener(Changes.class, null, (path, oldValue, newValue) -> changed.add(path + "=" + oldValue + ">" + newValue));
+
+		// Unchanged keys should not be set again
+		Changes.first = "modified";
+		config.set("second", "three");
+
+		ConfigParser.parse(plugin, config, Changes.class);
+		assertEquals(Changes.first, "modified");
+		assertEquals(Changes.second, "three");
+		assertEquals(changed, ListUtil.toList("second=two>three"));
+
+		// Removed keys leave the field alone, so nothing changed
+		config.set("second", null);
+
+		ConfigParser.parse(plugin, config, Changes.class);
+		assertEquals(Changes.second, "three");
+		assertEquals(changed, ListUtil.toList("second=two>three"));
+	}
+
+	private static class Changes
+	{
+		@Key("first")
+		public static String first;
+
+		@Key("second")
+		public static String second;
+	}
+
 	private static class Config
 	{
 		@Key("string")
@@ -0,0 +1,150 @@
+/**
+ * (c) 2016 dmulloy2
+ */
+package net.dmulloy2.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.MessageFormat;
+import java.util.Random;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+/**
+ * @author dmulloy2
+ */
+
+public class FormatUtilTest
+{
+	@Test
+	public void testColors()
+	{
+		assertEquals("Plain text", FormatUtil.replaceColors("Plain text"));
+		assertEquals("\u00a7cRed \u00a7lbold", FormatUtil.replaceColors("&cRed &Lbold"));
+		assertEquals("\u00a7ca\u00a76b\u00a7ec", FormatUtil.replaceColors("&zabc"));
+		assertEquals("", FormatUtil.replaceColors("&z"));
+	}
+
+	@Test
+	public void testEquivalence()
+	{
+		String[] messages = new String[]
+		{
+				"", "&", "&&", "&&c", "a&", "&4Hello &lworld", "&zRainbow &rnormal", "&ZRAINBOW", "one &z two &z three",
+				"&z1234567890", "a&&zb", "&&zb&", "&x&y&Q", "\u00a7c already colored &a", "&zab&&cd&ze&Zf"
+		};
+
+		for (String message : messages)
+			assertEquals(message, legacyReplaceColors(message), FormatUtil.replaceColors(message));
+
+		Random random = new Random(42);
+		char[] chars = "&&&zZcC4lrx a".toCharArray();
+		for (int i = 0; i < 10000; i++)
+		{
+			char[] message = new char[random.nextInt(16)];
+			for (int j = 0; j < message.length; j++)
+				message[j] = chars[random.nextInt(chars.length)];
+
+			String string = new String(message);
+			String expected;
+
+			try
+			{
+				expected = legacyReplaceColors(string);
+			}
+			catch (ArrayIndexOutOfBoundsException ex)
+			{
+				// The old implementation failed on messages that were only &z
+				continue;
+			}
+
+			assertEquals(string, expected, FormatUtil.replaceColors(string));
+		}
+	}
+
+	@Test
+	public void testFormat()
+	{
+		Object[][] args = new Object[][]
+		{
+				{ }, { "Player" }, { "&aGreen", 2 }, { null, 1234567.891, "x&" }, { "&z", "", "&" }
+		};
+
+		String[] patterns = new String[]
+		{
+				"", "Plain", "&cError: &4Unknown command \"&c{0}&4\". Try {1}", "{0}{1}{2}", "&{0}", "&z{0}&r{1}",
+				"Don't '{0}' ''quote'' {1}", "{0,number,#.##} &e{1}", "{b}Broken {", "{1}&{0}&&z{2}", "{01} and {10}"
+		};
+
+		for (String pattern : patterns)
+		{
+			for (Object[] arg : args)
+				assertEquals(pattern, legacyFormat(pattern, arg), FormatUtil.format(pattern, arg));
+		}
+
+		Random random = new Random(42);
+		String[] parts = new String[] { "&", "z", "c", "{0}", "{1}", "'", " ", "{", "}" };
+		for (int i = 0; i < 10000; i++)
+		{
+			StringBuilder pattern = new StringBuilder();
+			for (int j = random.nextInt(12); j > 0; j--)
+				pattern.append(parts[random.nextInt(parts.length)]);
+
+			for (Object[] arg : args)
+				assertEquals(pattern.toString(), legacyFormat(pattern.toString(), arg), FormatUtil.format(pattern.toString(), arg));
+		}
+	}
+
+	// The MessageFormat-based implementation format used to have
+	private static String legacyFormat(String format, Object... objects)
+	{
+		try
+		{
+			format = MessageFormat.format(format, objects);
+		} catch (Throwable ignored) { }
+
+		return FormatUtil.replaceColors(format);
+	}
+
+	private static final String[] rainbowColors = new String[]
+	{
+			"c", "6", "e", "a", "b", "d", "5"
+	};
+
+	// The regex-based implementation replaceColors used to have
+	private static String legacyReplaceColors(String message)
+	{
+		message = message.replaceAll("(&([zZ]))", "&z");
+		if (message.contains("&z"))
+		{
+			StringBuilder ret = new StringBuilder();
+			String[] ss = message.split("&z");
+			ret.append(ss[0]);
+			ss[0] = null;
+
+			for (String s : ss)
+			{
+				if (s != null)
+				{
+					int index = 0;
+					while (index < s.length() && s.charAt(index) != '&')
+					{
+						ret.append("&").append(rainbowColors[index % rainbowColors.length]);
+						ret.append(s.charAt(index));
+						index++;
+					}
+
+					if (index < s.length())
+					{
+						ret.append(s.substring(index));
+					}
+				}
+			}
+
+			message = ret.toString();
+		}
+
+		return ChatColor.translateAlternateColorCodes('&', message);
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * (c) 2016 dmulloy2
+ */
+package net.dmulloy2.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import net.dmulloy2.BukkitTesting;
+import net.dmulloy2.SwornPlugin;
+import net.dmulloy2.exception.ItemParseException;
+import net.dmulloy2.handlers.LogHandler;
+import net.dmulloy2.types.ItemTemplate;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Color;
+import org.bukkit.FireworkEffect;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.inventory.meta.FireworkMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.LeatherArmorMeta;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author dmulloy2
+ */
+
+public class ItemUtilTest
+{
+	@BeforeClass
+	public static void beforeClass()
+	{
+		BukkitTesting.prepare();
+	}
+
+	@Test
+	public void testRead()
+	{
+		ItemStack sword = ItemUtil.parseItem("diamond_sword, 1, sharp:5, name:&4Sword_of_Bob's, lore:First_line|Second\\_line");
+		assertEquals(sword.getType(), Material.DIAMOND_SWORD);
+		assertEquals(sword.getEnchantmentLevel(Enchantment.DAMAGE_ALL), 5);
+		assertEquals(sword.getItemMeta().getDisplayName(), ChatColor.DARK_RED + "Sword of Bob's");
+		assertEquals(sword.getItemMeta().getLore(), Arrays.asList("First line", "Second_line"));
+
+		ItemStack armor = ItemUtil.parseItem("leather_chestplate, color:#102030");
+		assertEquals(((LeatherArmorMeta) armor.getItemMeta()).getColor(), Color.fromRGB(0x102030));
+
+		ItemStack rocket = ItemUtil.parseItem("firework_rocket, 16, power:2, effect:ball_large|red+blue|white|flicker");
+		FireworkMeta firework = (FireworkMeta) rocket.getItemMeta();
+		assertEquals(rocket.getAmount(), 16);
+		assertEquals(firework.getPower(), 2);
+		assertEquals(firework.getEffects().get(0).getType(), FireworkEffect.Type.BALL_LARGE);
+		assertTrue(firework.getEffects().get(0).hasFlicker());
+
+		// Power is an enchantment on anything but fireworks
+		ItemStack bow = ItemUtil.parseItem("bow, 1, power:5");
+		assertEquals(bow.getEnchantmentLevel(Enchantment.ARROW_DAMAGE), 5);
+
+		ItemStack book = ItemUtil.parseItem("written_book, title:Notes, author:dmulloy2, pages:Page_one|Line\\nbreak");
+		assertEquals(((BookMeta) book.getItemMeta()).getPages(), Arrays.asList("Page one", "Line\nbreak"));
+	}
+
+	@Test
+	public void testRoundTrip()
+	{
+		ItemStack sword = new ItemStack(Material.DIAMOND_SWORD);
+		sword.addUnsafeEnchantment(Enchantment.DAMAGE_ARTHROPODS, 3);
+		ItemMeta meta = sword.getItemMeta();
+		meta.setDisplayName(ChatColor.RED + "Under_score, comma | pipe\\");
+		meta.setLore(Arrays.asList("One|two", "Three\nfour"));
+		sword.setItemMeta(meta);
+
+		ItemStack rocket = ItemUtil.parseItem("firework_rocket, power:1, effect:star|#123456|lime|trail");
+		ItemStack potion = ItemUtil.readPotion("potion: speed, 2, 1, true, true");
+
+		for (ItemStack item : Arrays.asList(sword, rocket, potion))
+			assertEquals(ItemUtil.parseItem(ItemUtil.serialize(item)), item);
+	}
+
+	@Test
+	public void testItemTemplates()
+	{
+		String definition = "diamond_sword, 1, sharpness:5, name:&4Cached";
+		long hits = ItemTemplate.getCacheStats().hitCount();
+
+		ItemStack first = ItemUtil.readItem(definition);
+		ItemStack second = ItemUtil.readItem(definition);
+		assertEquals(first, second);
+		assertNotSame(first, second);
+		assertTrue(ItemTemplate.getCacheStats().hitCount() > hits);
+
+		// Changing one item should not affect the next
+		first.setAmount(5);
+		assertEquals(ItemUtil.readItem(definition).getAmount(), 1);
+	}
+
+	@Test
+	public void testReadItems()
+	{
+		SwornPlugin plugin = mock(SwornPlugin.class);
+		when(plugin.getLogHandler()).thenReturn(new LogHandler(plugin, Logger.getGlobal()));
+
+		// Enough lines to be parsed in parallel
+		List<String> strings = new ArrayList<>();
+		for (int i = 1; i <= 500; i++)
+			strings.add(i % 50 == 0 ? "not_a_material, " + i : "stone, " + (i % 64 + 1));
+
+		List<ItemStack> items = ItemUtil.readItems(strings, plugin, "test");
+		assertEquals(items.size(), 490);
+
+		int index = 0;
+		for (int i = 1; i <= 500; i++)
+		{
+			if (i % 50 != 0)
+				assertEquals(items.get(index++).getAmount(), i % 64 + 1);
+		}
+	}
+
+	@Test
+	public void testErrors()
+	{
+		assertError("diamond_sword, 1, sharp:0", 24);
+		assertError("diamond_sword, 1, nonsense:1", 18);
+		assertError("not_a_material, 1", 0);
+		assertError("leather_helmet, color:nope", 22);
+		assertError("stick, color:red", 7);
+		assertError("potion: speed, 2", 16);
+	}
+
+	private void assertError(String input, int position)
+	{
+		try
+		{
+			ItemUtil.parseItem(input);
+			fail("Expected an error parsing " + input);
+		}
+		catch (ItemParseException ex)
+		{
+			assertEquals(ex.getPosition(), position);
+		}
+	}
+}
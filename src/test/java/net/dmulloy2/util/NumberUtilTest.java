@@ -0,0 +1,110 @@
+/**
+ * (c) 2016 dmulloy2
+ */
+package net.dmulloy2.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author dmulloy2
+ */
+
+public class NumberUtilTest
+{
+	private static final String[] INPUTS = new String[]
+	{
+			"", " ", "0", "-0", "+0", "1", "-1", "+", "-", "007", "12a", "a12", "1.5", ".5", "5.", ".", "-.5", "1e5",
+			"1E-5", "1e", "1e+", "2.5f", "2.5D", "1x", "NaN", "-Infinity", "Infinityd", "nan", " 42 ", "0x1p3",
+			"0x", "127", "128", "-128", "-129", "32767", "32768", "2147483647", "2147483648", "-2147483648",
+			"-2147483649", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+			"-9223372036854775809", "99999999999999999999", "\u0661\u0662", "1,000", "--1", "+-1"
+	};
+
+	@Test
+	public void testIntegers()
+	{
+		for (String input : INPUTS)
+			checkIntegers(input);
+
+		Random random = new Random(4);
+		String chars = "0123456789+-.eE ax";
+		for (int i = 0; i < 10000; i++)
+		{
+			StringBuilder builder = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++)
+				builder.append(chars.charAt(random.nextInt(chars.length())));
+			checkIntegers(builder.toString());
+			checkDecimals(builder.toString());
+		}
+	}
+
+	@Test
+	public void testDecimals()
+	{
+		for (String input : INPUTS)
+			checkDecimals(input);
+	}
+
+	@Test
+	public void testRanges()
+	{
+		assertEquals(123, NumberUtil.parseInt("abc123def", 3, 6, -1));
+		assertEquals(-1, NumberUtil.parseInt("abc123def", 2, 6, -1));
+		assertEquals(-1, NumberUtil.parseInt("123", 1, 1, -1));
+		assertEquals(45L, NumberUtil.parseLong("x:45", 2, 4, -1));
+		assertEquals(2.5D, NumberUtil.parseDouble("[2.5]", 1, 4, -1), 0.0D);
+		assertTrue(NumberUtil.isInt("a-5", 1, 3));
+		assertFalse(NumberUtil.isInt("a-5", 0, 3));
+		assertFalse(NumberUtil.tryParseInt("five").isPresent());
+		assertEquals(5, NumberUtil.tryParseInt("5").getAsInt());
+	}
+
+	private void checkIntegers(String input)
+	{
+		Integer expectedInt = null;
+		try { expectedInt = Integer.parseInt(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedInt != null, NumberUtil.isInt(input));
+		assertEquals(input, expectedInt != null ? expectedInt : -1, NumberUtil.toInt(input));
+		assertEquals(input, expectedInt != null ? OptionalInt.of(expectedInt) : OptionalInt.empty(), NumberUtil.tryParseInt(input));
+
+		Long expectedLong = null;
+		try { expectedLong = Long.parseLong(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedLong != null, NumberUtil.isLong(input));
+		assertEquals(input, expectedLong != null ? expectedLong : -1L, NumberUtil.toLong(input));
+		assertEquals(input, expectedLong != null ? OptionalLong.of(expectedLong) : OptionalLong.empty(), NumberUtil.tryParseLong(input));
+
+		Short expectedShort = null;
+		try { expectedShort = Short.parseShort(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedShort != null, NumberUtil.isShort(input));
+		assertEquals(input, expectedShort != null ? expectedShort : -1, NumberUtil.toShort(input));
+
+		Byte expectedByte = null;
+		try { expectedByte = Byte.parseByte(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedByte != null, NumberUtil.isByte(input));
+		assertEquals(input, expectedByte != null ? expectedByte : -1, NumberUtil.toByte(input));
+	}
+
+	private void checkDecimals(String input)
+	{
+		Double expectedDouble = null;
+		try { expectedDouble = Double.parseDouble(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedDouble != null, NumberUtil.isDouble(input));
+		assertEquals(input, expectedDouble != null ? expectedDouble : -1.0D, NumberUtil.toDouble(input), 0.0D);
+		assertEquals(input, expectedDouble != null ? OptionalDouble.of(expectedDouble) : OptionalDouble.empty(), NumberUtil.tryParseDouble(input));
+
+		Float expectedFloat = null;
+		try { expectedFloat = Float.parseFloat(input); } catch (NumberFormatException ignored) { }
+		assertEquals(input, expectedFloat != null, NumberUtil.isFloat(input));
+		assertEquals(input, expectedFloat != null ? expectedFloat : -1.0F, NumberUtil.toFloat(input), 0.0F);
+	}
+}
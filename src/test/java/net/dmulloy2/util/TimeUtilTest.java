@@ -0,0 +1,86 @@
+/**
+ * (c) 2016 dmulloy2
+ */
+package net.dmulloy2.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import net.dmulloy2.exception.BadTimeException;
+
+import org.junit.Test;
+
+/**
+ * @author dmulloy2
+ */
+
+public class TimeUtilTest
+{
+	@Test
+	public void testParseTime()
+	{
+		assertEquals(TimeUnit.MINUTES.toMillis(5), TimeUtil.parseTime("5"));
+		assertEquals(TimeUnit.SECONDS.toMillis(90), TimeUtil.parseTime("1.5"));
+		assertEquals(TimeUnit.DAYS.toMillis(3), TimeUtil.parseTime("3d"));
+		assertEquals(TimeUnit.DAYS.toMillis(30), TimeUtil.parseTime("30days"));
+		assertEquals(TimeUnit.HOURS.toMillis(2), TimeUtil.parseTime("2H"));
+		assertEquals(TimeUnit.MINUTES.toMillis(10), TimeUtil.parseTime("10mins"));
+		assertEquals(TimeUnit.SECONDS.toMillis(45), TimeUtil.parseTime("45s"));
+
+		long compound = TimeUnit.DAYS.toMillis(1) + TimeUnit.HOURS.toMillis(2) + TimeUnit.MINUTES.toMillis(30);
+		assertEquals(compound, TimeUtil.parseTime("1d2h30m"));
+		assertEquals(compound, TimeUtil.parseTime("1 day 2 hours 30 minutes"));
+
+		String[] invalid = new String[] { "", "d", "5x", "1d2", "-5m", "1d-2h", "abc" };
+		for (String time : invalid)
+		{
+			assertEquals(time, -1L, TimeUtil.parseTime(time, -1L));
+
+			try
+			{
+				TimeUtil.parseTime(time);
+				fail("Parsed invalid time " + time);
+			} catch (BadTimeException expected) { }
+		}
+	}
+
+	@Test
+	public void testFormatTime()
+	{
+		assertEquals("0s", TimeUtil.formatTime(0));
+		assertEquals("1m0s", TimeUtil.formatTime(60000));
+		assertEquals("1d2h30m0s", TimeUtil.formatTime(TimeUtil.parseTime("1d2h30m")));
+
+		StringBuilder builder = new StringBuilder("Took ");
+		assertEquals("Took 5s", TimeUtil.formatTime(5999, builder).toString());
+	}
+
+	@Test
+	public void testFormatDate()
+	{
+		long[] times = new long[] { 0L, 1000000000000L, 1478563200000L, 1500000000000L };
+		for (String timeZone : new String[] { "GMT", "America/New_York", "Asia/Kolkata", "Not/AZone" })
+		{
+			for (long time : times)
+			{
+				assertEquals(legacyFormat("dd MMM yyyy", time, timeZone), TimeUtil.getSimpleDate(time, timeZone));
+				assertEquals(legacyFormat("MM/dd/yy HH:mm", time, timeZone), TimeUtil.formatDate(time, "MM/dd/yy HH:mm", timeZone));
+			}
+		}
+
+		assertEquals(Arrays.asList("01/01/70 00:00", "09/09/01 01:46"), TimeUtil.formatDates(new long[] { 0L, 1000000000000L }, "MM/dd/yy HH:mm", null));
+	}
+
+	private String legacyFormat(String pattern, long time, String timeZone)
+	{
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setTimeZone(TimeZone.getTimeZone(timeZone));
+		return format.format(new Date(time));
+	}
+}